@@ -16,6 +16,7 @@ import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import org.slf4j.Logger;
 import portal_controller.PortalControllerScreen;
+import portal_fluid_tank.TankMultiblock;
 
 @Mod(AdvancedPortals.MODID)
 public class AdvancedPortals {
@@ -44,6 +45,9 @@ public class AdvancedPortals {
     }
 
     public void commonSetup(final FMLCommonSetupEvent event) {
+        // Before any server starts, so portal scheduling and storage settings come from the file
+        Config.load();
+        TankMultiblock.refreshActivationFluid();
         LOGGER.info("Advanced Portals mod initialized");
     }
 
@@ -60,6 +64,7 @@ public class AdvancedPortals {
     @SubscribeEvent
     public void onServerStarting(ServerStartingEvent event) {
         LOGGER.info("Advanced Portals server starting");
+        TankMultiblock.refreshActivationFluid();
     }
 
 
@@ -12,7 +12,15 @@ public class Config {
     public static boolean CREATE_LOG_FILES = false;
     public static boolean CONSOLE_LOGS = true; // Enable by default for debugging
 
-    // Item transport settings
+    // Portal structure settings
+    public static int REVALIDATION_BUDGET_MICROS = 0; // 0 = validate every dirty portal each tick
+    public static boolean PROPORTIONAL_STORAGE_DRAIN = true; // false = drain largest storage first
+    public static String ACTIVATION_FLUID = "minecraft:water"; // only tanks holding this fluid pay portal costs
+    public static int MAINTENANCE_SETTLE_TICKS = 20; // 1 = bill maintenance every tick
+    public static int MAINTENANCE_DEBT_THRESHOLD = 100; // FE of unpaid maintenance that forces an early settle
+    public static long PORTAL_TICK_BUDGET_NANOS = 2_000_000; // 0 = process every due portal each tick
+    public static int IDLE_PORTAL_INTERVAL_TICKS = 10; // open portals with nothing in front of them
+    public static int TELEPORTS_PER_TICK = 8; // shared by all portals, handed out round-robin
 
 
     private static final String CONFIG_FILE_NAME = "ship_item_transporter.toml";
@@ -25,7 +33,27 @@ public class Config {
                     "createLogFiles=false\n\n" +
 
                     "# Whether to output logs to console (useful for debugging)\n" +
-                    "consoleLogs=true\n\n" ;
+                    "consoleLogs=true\n\n" +
+
+                    "# Time budget per server tick for revalidating edited portal structures, in microseconds (0 = unlimited)\n" +
+                    "revalidationBudgetMicros=0\n\n" +
+
+                    "# How portal costs are taken from connected batteries/tanks: proportional or priority (largest storage first)\n" +
+                    "storageDrainMode=proportional\n\n" +
+
+                    "# Fluid registry name portals draw from tanks\n" +
+                    "activationFluid=minecraft:water\n\n" +
+
+                    "# Open portals accrue maintenance power and pay it every N ticks, or sooner once the debt reaches the threshold (FE)\n" +
+                    "maintenanceSettleTicks=20\n" +
+                    "maintenanceDebtThreshold=100\n\n" +
+
+                    "# Time open portals may take per server tick (nanoseconds, 0 = unlimited) and how often idle portals are checked (ticks)\n" +
+                    "portalTickBudgetNanos=2000000\n" +
+                    "idlePortalIntervalTicks=10\n\n" +
+
+                    "# Entities teleported per server tick across all portals\n" +
+                    "teleportsPerTick=8\n\n" ;
 
 
 
@@ -95,6 +123,30 @@ public class Config {
                 case "consoleLogs":
                     CONSOLE_LOGS = parseBoolean(value, true);
                     break;
+                case "revalidationBudgetMicros":
+                    REVALIDATION_BUDGET_MICROS = Math.max(0, parseInt(value, 0));
+                    break;
+                case "storageDrainMode":
+                    PROPORTIONAL_STORAGE_DRAIN = !"priority".equalsIgnoreCase(value);
+                    break;
+                case "activationFluid":
+                    ACTIVATION_FLUID = value.isEmpty() ? "minecraft:water" : value;
+                    break;
+                case "maintenanceSettleTicks":
+                    MAINTENANCE_SETTLE_TICKS = Math.max(1, parseInt(value, 20));
+                    break;
+                case "maintenanceDebtThreshold":
+                    MAINTENANCE_DEBT_THRESHOLD = Math.max(0, parseInt(value, 100));
+                    break;
+                case "portalTickBudgetNanos":
+                    PORTAL_TICK_BUDGET_NANOS = Math.max(0, parseLong(value, 2_000_000));
+                    break;
+                case "idlePortalIntervalTicks":
+                    IDLE_PORTAL_INTERVAL_TICKS = Math.max(1, parseInt(value, 10));
+                    break;
+                case "teleportsPerTick":
+                    TELEPORTS_PER_TICK = Math.max(1, parseInt(value, 8));
+                    break;
 
 
 
@@ -123,6 +175,17 @@ public class Config {
         }
     }
 
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            if (CONSOLE_LOGS) {
+                System.out.println("[Ship Item Transporter] Using default value " + defaultValue + " for " + value);
+            }
+            return defaultValue;
+        }
+    }
+
     private static boolean parseBoolean(String value, boolean defaultValue) {
         if ("true".equalsIgnoreCase(value)) return true;
         if ("false".equalsIgnoreCase(value)) return false;
@@ -138,6 +201,12 @@ public class Config {
             System.out.println("[Ship Item Transporter] - Player logs: " + SEND_LOGS_TO_ALL_PLAYERS);
             System.out.println("[Ship Item Transporter] - File logs: " + CREATE_LOG_FILES);
             System.out.println("[Ship Item Transporter] - Console logs: " + CONSOLE_LOGS);
+            System.out.println("[Ship Item Transporter] - Revalidation budget: " + REVALIDATION_BUDGET_MICROS + "us");
+            System.out.println("[Ship Item Transporter] - Storage drain: " + (PROPORTIONAL_STORAGE_DRAIN ? "proportional" : "priority"));
+            System.out.println("[Ship Item Transporter] - Activation fluid: " + ACTIVATION_FLUID);
+            System.out.println("[Ship Item Transporter] - Maintenance billing: every " + MAINTENANCE_SETTLE_TICKS + " ticks or " + MAINTENANCE_DEBT_THRESHOLD + " FE");
+            System.out.println("[Ship Item Transporter] - Portal tick budget: " + PORTAL_TICK_BUDGET_NANOS + "ns, idle interval " + IDLE_PORTAL_INTERVAL_TICKS + " ticks");
+            System.out.println("[Ship Item Transporter] - Teleports per tick: " + TELEPORTS_PER_TICK);
 
 
 
@@ -148,6 +217,14 @@ public class Config {
         SEND_LOGS_TO_ALL_PLAYERS = true;
         CREATE_LOG_FILES = false;
         CONSOLE_LOGS = true;
+        REVALIDATION_BUDGET_MICROS = 0;
+        PROPORTIONAL_STORAGE_DRAIN = true;
+        ACTIVATION_FLUID = "minecraft:water";
+        MAINTENANCE_SETTLE_TICKS = 20;
+        MAINTENANCE_DEBT_THRESHOLD = 100;
+        PORTAL_TICK_BUDGET_NANOS = 2_000_000;
+        IDLE_PORTAL_INTERVAL_TICKS = 10;
+        TELEPORTS_PER_TICK = 8;
 
 
     }
@@ -5,7 +5,12 @@ import net.minecraft.core.Direction;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import portal_multiblock.BlockPosSet;
+import portal_multiblock.ConnectedComponents;
+import portal_multiblock.NetworkHandle;
 import portal_multiblock.PortalMultiblockManager;
+import portal_multiblock.StorageNetworkData;
+import portal_multiblock.StorageTransferBatcher;
 import portal_power_cable.PowerCableMultiblock;
 import portal_power_cable.PortalPowerCableBlockEntity;
 import advanced_portals.Logger;
@@ -14,19 +19,32 @@ import java.util.*;
 
 public class BatteryMultiblock {
     private final UUID multiblockId;
-    private final Set<BlockPos> batteryBlocks;
+    private final BlockPosSet batteryBlocks;
+    private final NetworkHandle<BatteryMultiblock> handle;
     public Set<UUID> connectedPortalsId;
     private Level level = null;
 
     // Track cable multiblock connections with specific battery blocks
     public Map<UUID, Set<BlockPos>> connectedCableMultiblocksMap;
 
+    // The only copy of the network's charge - persisted per network in StorageNetworkData, block entities only save the ID
     private int storedEnergy;
     private final int capacityPerBattery = 100000;
+    // Capability inserts per tick, so a bigger bank also charges faster
+    private final int transferRatePerBattery = 1000;
+    // Capability inserts accepted this tick, added to storedEnergy in one go by StorageTransferBatcher
+    private int pendingEnergy;
+    // Capability extraction this tick, held to the same budget as inserts; reset by StorageTransferBatcher
+    private int extractedThisTick;
+    // Members from the saved record whose chunks haven't loaded yet - they still count toward capacity
+    private int unloadedMembers;
+    // Created from a saved record, so rejoining blocks only restore membership
+    private boolean restoredFromSave;
 
     public BatteryMultiblock(UUID multiblockId, Level level) {
         this.multiblockId = multiblockId;
-        this.batteryBlocks = new HashSet<>();
+        this.batteryBlocks = new BlockPosSet();
+        this.handle = new NetworkHandle<>(this);
         this.connectedPortalsId = new HashSet<>();
         this.level = level;
         this.storedEnergy = 0;
@@ -42,6 +60,12 @@ public class BatteryMultiblock {
             Logger.sendMessage(String.format("BatteryMultiblock: Generated new ID %s on load/tick", multiblockId.toString().substring(0, 8)), true);
         }
 
+        StorageNetworkData data = StorageNetworkData.get(level);
+        if (data != null) {
+            // Blocks unloaded during a merge still carry the absorbed network's ID
+            multiblockId = data.resolve(multiblockId);
+        }
+
         BatteryMultiblock existing = PortalMultiblockManager.getBatteryMultiblock(multiblockId);
         if (existing != null) {
             Logger.sendMessage(String.format("BatteryMultiblock: Found existing multiblock with ID %s on load/tick.", multiblockId.toString().substring(0, 8)), true);
@@ -49,6 +73,12 @@ public class BatteryMultiblock {
         }
 
         BatteryMultiblock newMultiblock = new BatteryMultiblock(multiblockId, level);
+        StorageNetworkData.SavedNetwork saved = data != null ? data.getSaved(multiblockId) : null;
+        if (saved != null) {
+            newMultiblock.storedEnergy = saved.amount();
+            newMultiblock.unloadedMembers = saved.members();
+            newMultiblock.restoredFromSave = true;
+        }
         Logger.sendMessage(String.format("BatteryMultiblock: Recreated multiblock with ID %s from saved data on load/tick.", multiblockId.toString().substring(0, 8)), true);
         return newMultiblock;
     }
@@ -74,7 +104,33 @@ public class BatteryMultiblock {
     }
 
     public void addBattery(BlockPos pos) {
-        batteryBlocks.add(pos);
+        if (addBatteryBlock(pos)) {
+            StorageNetworkData.markChanged(this);
+            PortalMultiblockManager.onBatteryCapacityChanged(this, capacityPerBattery);
+        }
+    }
+
+    private boolean addBatteryBlock(BlockPos pos) {
+        boolean added = batteryBlocks.add(pos);
+        PortalMultiblockManager.indexBatteryBlock(level, pos, this);
+        return added;
+    }
+
+    // Rejoin after load only restores membership - the charge comes from the network's saved record.
+    // legacyEnergy is the per-block share older saves wrote, used only for networks without a record.
+    public void rejoinBattery(BlockPos pos, int legacyEnergy) {
+        if (batteryBlocks.contains(pos)) {
+            addBatteryBlock(pos);
+        } else if (unloadedMembers > 0) {
+            // Already counted in the saved capacity
+            unloadedMembers--;
+            addBatteryBlock(pos);
+        } else {
+            addBattery(pos);
+            if (!restoredFromSave && legacyEnergy > 0) {
+                addEnergy(legacyEnergy);
+            }
+        }
     }
 
     private static Set<BatteryMultiblock> findAdjacentBatteryMultiblocks(BlockPos pos, Level level) {
@@ -111,8 +167,8 @@ public class BatteryMultiblock {
 
     private static BatteryMultiblock mergeAllAdjacentMultiblocks(Set<BatteryMultiblock> multiblocksToMerge) {
         if (multiblocksToMerge.isEmpty()) return null;
-        Iterator<BatteryMultiblock> iterator = multiblocksToMerge.iterator();
-        BatteryMultiblock mainMultiblock = iterator.next();
+        // Union by size: the largest network survives, so only the smaller ones get moved
+        BatteryMultiblock mainMultiblock = Collections.max(multiblocksToMerge, Comparator.comparingInt(multiblock -> multiblock.batteryBlocks.size()));
 
         if (multiblocksToMerge.size() == 1) {
             Logger.sendMessage("Only one adjacent BatteryMultiblock " + mainMultiblock.multiblockId.toString().substring(0, 8) + " found", true);
@@ -123,22 +179,22 @@ public class BatteryMultiblock {
         int totalBatteriesBefore = mainMultiblock.batteryBlocks.size();
         int totalEnergyBefore = mainMultiblock.storedEnergy;
 
-        Set<BlockPos> allPositionsToUpdate = new HashSet<>();
-        while (iterator.hasNext()) {
-            BatteryMultiblock otherMultiblock = iterator.next();
-            allPositionsToUpdate.addAll(otherMultiblock.batteryBlocks);
-
+        for (BatteryMultiblock otherMultiblock : multiblocksToMerge) {
             if (otherMultiblock.multiblockId.equals(mainMultiblock.multiblockId)) continue;
 
             int batteriesToAdd = otherMultiblock.batteryBlocks.size();
             int energyToAdd = otherMultiblock.storedEnergy;
             mainMultiblock.mergeWith(otherMultiblock);
             PortalMultiblockManager.removeBatteryMultiblock(otherMultiblock);
+            // Block entities of the absorbed network follow through its handle - no per-block rewrite.
+            // Ones in unloaded chunks follow the saved forward when they load.
+            otherMultiblock.handle.forwardTo(mainMultiblock.handle);
+            StorageNetworkData data = StorageNetworkData.get(mainMultiblock.level);
+            if (data != null) data.forward(otherMultiblock.multiblockId, mainMultiblock.multiblockId);
 
             Logger.sendMessage("Merged BatteryMultiblock " + otherMultiblock.multiblockId.toString().substring(0, 8) + " into " + mainMultiblock.multiblockId.toString().substring(0, 8) + " (+" + batteriesToAdd + " batteries, +" + energyToAdd + " FE)", true);
         }
 
-        updateAllBlockEntityReferences(mainMultiblock, allPositionsToUpdate);
         int totalBatteriesAdded = mainMultiblock.batteryBlocks.size() - totalBatteriesBefore;
         int totalEnergyAdded = mainMultiblock.storedEnergy - totalEnergyBefore;
         Logger.sendMessage("Merge complete: " + totalBatteriesAdded + " total batteries added, " + totalEnergyAdded + " FE transferred", true);
@@ -146,40 +202,41 @@ public class BatteryMultiblock {
         return mainMultiblock;
     }
 
-    private static void updateAllBlockEntityReferences(BatteryMultiblock multiblock, Set<BlockPos> positionsToUpdate) {
-        if (multiblock.level == null) return;
-        int updatedCount = 0;
-        for (BlockPos pos : positionsToUpdate) {
-            BlockEntity blockEntity = multiblock.level.getBlockEntity(pos);
-            if (blockEntity instanceof PortalBatteryBlockEntity) {
-                ((PortalBatteryBlockEntity) blockEntity).setBatteryMultiblock(multiblock);
-                updatedCount++;
-            }
-        }
-        Logger.sendMessage("Updated " + updatedCount + " block entity references to BatteryMultiblock " + multiblock.multiblockId.toString().substring(0, 8), true);
-    }
-
     public void handleBatteryBlockBreak(BlockPos removedPos) {
+        // Settle this tick's inserts while the old capacity still applies
+        flushPendingEnergy();
         Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " handling break at " + removedPos, true);
 
         if (this.batteryBlocks.remove(removedPos)) {
+            PortalMultiblockManager.unindexBatteryBlock(level, removedPos, this);
             Logger.sendMessage(String.format("BatteryMultiblock: Subtracted block at [%d, %d, %d]. Total blocks: %d. Multiblock ID: %s",
                     removedPos.getX(), removedPos.getY(), removedPos.getZ(), this.batteryBlocks.size(), this.multiblockId.toString().substring(0, 8)), true);
 
             // SIMPLE: Remove cable connections for this battery
             removeCableConnectionsForBattery(removedPos);
 
-            if (batteryBlocks.isEmpty()) {
+            if (batteryBlocks.isEmpty() && unloadedMembers == 0) {
                 PortalMultiblockManager.removeBatteryMultiblock(this);
+                StorageNetworkData data = StorageNetworkData.get(level);
+                if (data != null) data.forget(multiblockId);
                 Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " DESTROYED (no batteries remaining)", true);
                 return;
             }
 
-            // Check if the multiblock needs to split into multiple components
-            List<Set<BlockPos>> disconnectedComponents = findDisconnectedComponents();
-            if (disconnectedComponents.size() > 1) {
-                Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " splitting into " + disconnectedComponents.size() + " components", true);
-                splitIntoComponents(disconnectedComponents);
+            // The broken block's capacity goes with it
+            StorageNetworkData.markChanged(this);
+            PortalMultiblockManager.onBatteryCapacityChanged(this, -capacityPerBattery);
+            if (storedEnergy > getMaxCapacity()) {
+                consumeEnergy(storedEnergy - getMaxCapacity());
+            }
+            // The rest of the network is in unloaded chunks - nothing loaded around the break to split
+            if (batteryBlocks.isEmpty()) return;
+
+            // Only explore around the break - a full split runs only if the neighbours really disconnected
+            List<BlockPosSet> detachedComponents = ConnectedComponents.findDetachedComponents(batteryBlocks, removedPos);
+            if (!detachedComponents.isEmpty()) {
+                Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " splitting into " + (detachedComponents.size() + 1) + " components", true);
+                splitIntoComponents(detachedComponents);
             } else {
                 Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " now has " + batteryBlocks.size() + " batteries (no split needed)", true);
             }
@@ -203,46 +260,29 @@ public class BatteryMultiblock {
         }
     }
 
-    private List<Set<BlockPos>> findDisconnectedComponents() {
-        Set<BlockPos> visited = new HashSet<>();
-        List<Set<BlockPos>> components = new ArrayList<>();
-        for (BlockPos startPos : batteryBlocks) {
-            if (!visited.contains(startPos)) {
-                Set<BlockPos> component = new HashSet<>();
-                floodFill(startPos, component, visited);
-                components.add(component);
-            }
-        }
-        return components;
-    }
-
-    private void floodFill(BlockPos start, Set<BlockPos> component, Set<BlockPos> visited) {
-        if (visited.contains(start)) return;
-        visited.add(start);
-        component.add(start);
-        for (Direction direction : Direction.values()) {
-            BlockPos neighbor = start.relative(direction);
-            if (batteryBlocks.contains(neighbor)) {
-                floodFill(neighbor, component, visited);
-            }
-        }
-    }
-
-    private void splitIntoComponents(List<Set<BlockPos>> components) {
+    private void splitIntoComponents(List<BlockPosSet> detachedComponents) {
         // Store the original multiblock ID for connection cleanup
         UUID originalMultiblockId = this.multiblockId;
 
-        // First component keeps the original multiblock
-        Set<BlockPos> mainComponent = components.get(0);
-        this.batteryBlocks.clear();
-        this.batteryBlocks.addAll(mainComponent);
-        redistributeEnergyForSplit(components);
+        // Whatever is still connected keeps the original multiblock (and any unloaded members); detached parts move out
+        int loadedBefore = batteryBlocks.size();
+        int membersBefore = getMemberCount();
+        int energyBefore = storedEnergy;
+        for (BlockPosSet component : detachedComponents) {
+            batteryBlocks.removeAll(component);
+        }
 
-        // Create new multiblocks for other components
-        for (int i = 1; i < components.size(); i++) {
-            Set<BlockPos> component = components.get(i);
+        // Create new multiblocks for the detached components
+        for (BlockPosSet component : detachedComponents) {
             BatteryMultiblock newMultiblock = new BatteryMultiblock(UUID.randomUUID(), level);
-            newMultiblock.batteryBlocks.addAll(component);
+            for (BlockPos pos : component) {
+                newMultiblock.addBattery(pos);
+            }
+            // Each part leaves with charge in proportion to its blocks; rounding stays with this one
+            int energyShare = (int) ((long) energyBefore * component.size() / membersBefore);
+            newMultiblock.storedEnergy = energyShare;
+            this.storedEnergy -= energyShare;
+            StorageNetworkData.markChanged(newMultiblock);
 
             Logger.sendMessage("Created new BatteryMultiblock " + newMultiblock.multiblockId.toString().substring(0, 8) + " with " + component.size() + " batteries from split", true);
 
@@ -256,10 +296,17 @@ public class BatteryMultiblock {
         }
 
         // CRITICAL: Update cable connections for the main multiblock (remove connections to batteries that are no longer in this multiblock)
-        updateCableConnectionsForMainMultiblock(mainComponent, originalMultiblockId);
+        // Block entities that stayed already reference this multiblock, so only the detached ones were updated above
+        updateCableConnectionsForMainMultiblock(batteryBlocks, originalMultiblockId);
+        StorageNetworkData.markChanged(this);
+
+        // Portals still drawing from this network only see it shrink
+        PortalMultiblockManager.onBatteryCapacityChanged(this, (batteryBlocks.size() - loadedBefore) * capacityPerBattery);
+        if (storedEnergy != energyBefore) {
+            PortalMultiblockManager.onBatteryEnergyChanged(this, storedEnergy - energyBefore);
+        }
 
-        updateAllBlockEntityReferences(this, mainComponent);
-        Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " now has " + batteryBlocks.size() + " batteries after split", true);
+        Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " now has " + batteryBlocks.size() + " batteries after split (" + energyBefore + " FE -> " + storedEnergy + " FE kept)", true);
     }
 
     // CRITICAL: Update cable connections for the main multiblock after split
@@ -343,14 +390,6 @@ public class BatteryMultiblock {
         }
     }
 
-    private void redistributeEnergyForSplit(List<Set<BlockPos>> components) {
-        int totalBatteries = components.stream().mapToInt(Set::size).sum();
-        if (totalBatteries == 0) return;
-        int originalEnergy = this.storedEnergy;
-        this.storedEnergy = (originalEnergy * this.batteryBlocks.size()) / totalBatteries;
-        Logger.sendMessage("Redistributed energy: " + originalEnergy + " FE -> " + this.storedEnergy + " FE for main component", true);
-    }
-
     public void addCableConnectionFromCable(UUID cableId, BlockPos batteryPos) {
         Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " connected to PowerCableMultiblock " + cableId.toString().substring(0, 8) + " at " + batteryPos, true);
         if (!connectedCableMultiblocksMap.containsKey(cableId)) {
@@ -373,10 +412,24 @@ public class BatteryMultiblock {
     public void mergeWith(BatteryMultiblock other) {
         Logger.sendMessage("BatteryMultiblock " + multiblockId.toString().substring(0, 8) + " merging with " + other.multiblockId.toString().substring(0, 8), true);
 
+        // Queued inserts would otherwise flush into a network that no longer exists
+        other.flushPendingEnergy();
+
         // Merge basic properties
-        this.batteryBlocks.addAll(other.batteryBlocks);
+        int added = other.unloadedMembers;
+        for (BlockPos pos : other.batteryBlocks) {
+            if (addBatteryBlock(pos)) added++;
+        }
+        this.unloadedMembers += other.unloadedMembers;
         this.connectedPortalsId.addAll(other.connectedPortalsId);
         this.storedEnergy += other.storedEnergy;
+        StorageNetworkData.markChanged(this);
+
+        // Portals on this network just grow; those on the absorbed one resolve again when it's unregistered
+        PortalMultiblockManager.onBatteryCapacityChanged(this, added * capacityPerBattery);
+        if (other.storedEnergy != 0) {
+            PortalMultiblockManager.onBatteryEnergyChanged(this, other.storedEnergy);
+        }
 
         // CRITICAL: Merge cable connections
         for (Map.Entry<UUID, Set<BlockPos>> entry : other.connectedCableMultiblocksMap.entrySet()) {
@@ -418,6 +471,9 @@ public class BatteryMultiblock {
     public int consumeEnergy(int amount) {
         int energyToConsume = Math.min(amount, storedEnergy);
         storedEnergy -= energyToConsume;
+        if (energyToConsume != 0) {
+            PortalMultiblockManager.onBatteryEnergyChanged(this, -energyToConsume);
+        }
         return energyToConsume;
     }
 
@@ -426,15 +482,71 @@ public class BatteryMultiblock {
         int spaceAvailable = capacity - storedEnergy;
         int energyToAdd = Math.min(amount, spaceAvailable);
         storedEnergy += energyToAdd;
+        if (energyToAdd != 0) {
+            PortalMultiblockManager.onBatteryEnergyChanged(this, energyToAdd);
+        }
         return energyToAdd;
     }
 
+    // Accepts up to this tick's transfer budget and the free space left after earlier inserts
+    public int queueEnergy(int amount, boolean simulate) {
+        int space = getMaxCapacity() - storedEnergy - pendingEnergy;
+        int budget = batteryBlocks.size() * transferRatePerBattery - pendingEnergy;
+        int accepted = Math.max(0, Math.min(amount, Math.min(space, budget)));
+        if (!simulate && accepted > 0) {
+            if (pendingEnergy == 0 && extractedThisTick == 0) {
+                StorageTransferBatcher.schedule(this);
+            }
+            pendingEnergy += accepted;
+        }
+        return accepted;
+    }
+
+    // Capability extraction: up to this tick's transfer budget, taken from the counter right away
+    public int extractEnergy(int amount, boolean simulate) {
+        int budget = batteryBlocks.size() * transferRatePerBattery - extractedThisTick;
+        int allowed = Math.max(0, Math.min(amount, Math.min(storedEnergy, budget)));
+        if (simulate || allowed == 0) return allowed;
+
+        if (pendingEnergy == 0 && extractedThisTick == 0) {
+            StorageTransferBatcher.schedule(this);
+        }
+        extractedThisTick += allowed;
+        return consumeEnergy(allowed);
+    }
+
+    // End of tick: settle queued inserts and open a fresh transfer budget
+    public void finishTick() {
+        flushPendingEnergy();
+        extractedThisTick = 0;
+    }
+
+    public void flushPendingEnergy() {
+        if (pendingEnergy == 0) return;
+        int amount = pendingEnergy;
+        pendingEnergy = 0;
+        addEnergy(amount);
+    }
+
+    public int getPendingEnergy() {
+        return pendingEnergy;
+    }
+
     public int getStoredEnergy() {
         return storedEnergy;
     }
 
     public int getMaxCapacity() {
-        return batteryBlocks.size() * capacityPerBattery;
+        return getMemberCount() * capacityPerBattery;
+    }
+
+    // Loaded blocks plus members from the saved record that haven't rejoined yet
+    public int getMemberCount() {
+        return batteryBlocks.size() + unloadedMembers;
+    }
+
+    public NetworkHandle<BatteryMultiblock> getHandle() {
+        return handle;
     }
 
     public UUID getMultiblockId() {
@@ -458,12 +570,7 @@ public class BatteryMultiblock {
     }
 
     public boolean isAdjacentTo(BlockPos pos) {
-        for (BlockPos batteryPos : batteryBlocks) {
-            if (batteryPos.distSqr(pos) <= 2.0) {
-                return true;
-            }
-        }
-        return false;
+        return batteryBlocks.containsNear(pos, 2);
     }
 
     public Set<UUID> getConnectedCableIds() {
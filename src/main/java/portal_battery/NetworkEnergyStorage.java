@@ -0,0 +1,53 @@
+package portal_battery;
+
+import net.minecraftforge.energy.IEnergyStorage;
+
+/**
+ * Forge energy view of a whole battery network, handed out by every battery block.
+ * Holds nothing itself: inserts are queued on the network and applied once at the end of
+ * the tick, extraction and reads go straight to the network's counter. Both directions share
+ * the network's per-tick transfer rate. The network is
+ * resolved on every call so merges and splits never leave a stale facade behind.
+ */
+public class NetworkEnergyStorage implements IEnergyStorage {
+    private final PortalBatteryBlockEntity blockEntity;
+
+    public NetworkEnergyStorage(PortalBatteryBlockEntity blockEntity) {
+        this.blockEntity = blockEntity;
+    }
+
+    @Override
+    public int receiveEnergy(int maxReceive, boolean simulate) {
+        BatteryMultiblock multiblock = blockEntity.getBatteryMultiblock();
+        if (multiblock == null || maxReceive <= 0) return 0;
+        return multiblock.queueEnergy(maxReceive, simulate);
+    }
+
+    @Override
+    public int extractEnergy(int maxExtract, boolean simulate) {
+        BatteryMultiblock multiblock = blockEntity.getBatteryMultiblock();
+        if (multiblock == null || maxExtract <= 0) return 0;
+        return multiblock.extractEnergy(maxExtract, simulate);
+    }
+
+    @Override
+    public int getEnergyStored() {
+        BatteryMultiblock multiblock = blockEntity.getBatteryMultiblock();
+        return multiblock != null ? multiblock.getStoredEnergy() + multiblock.getPendingEnergy() : 0;
+    }
+
+    @Override
+    public int getMaxEnergyStored() {
+        return blockEntity.getMaxEnergyStored();
+    }
+
+    @Override
+    public boolean canExtract() {
+        return true;
+    }
+
+    @Override
+    public boolean canReceive() {
+        return blockEntity.getBatteryMultiblock() != null;
+    }
+}
@@ -1,6 +1,5 @@
 package portal_battery;
 
-import advanced_portals.PortalBlockEntities;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.BaseEntityBlock;
@@ -8,8 +7,6 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.EntityBlock;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.MapColor;
 import org.jetbrains.annotations.Nullable;
@@ -69,12 +66,6 @@ public class PortalBatteryBlock extends BaseEntityBlock implements EntityBlock {
         // FIXED: Don't pass multiblock to constructor - it will be set later
         return new PortalBatteryBlockEntity(pos, state);
     }
-    @Nullable
-    @Override
-    public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-        return createTickerHelper(type, PortalBlockEntities.PORTAL_BATTERY_BLOCK_ENTITY.get(),
-                level.isClientSide ? null : PortalBatteryBlockEntity::tick);
-    }
 
     // FIXED: REMOVE this method - we don't store multiblock in block anymore
     // public void setBatteryMultiblock(BatteryMultiblock multiblock) {
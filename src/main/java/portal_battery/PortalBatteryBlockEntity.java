@@ -11,16 +11,21 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.common.util.LazyOptional;
-import net.minecraftforge.energy.EnergyStorage;
 import net.minecraftforge.energy.IEnergyStorage;
+import portal_multiblock.MultiblockRejoinQueue;
+import portal_multiblock.NetworkHandle;
 
 import javax.annotation.Nonnull;
 import java.util.UUID;
 
-public class PortalBatteryBlockEntity extends BlockEntity {
-    private BatteryMultiblock batteryMultiblock;
-    private final EnergyStorage energyStorage = new EnergyStorage(100000, 1000, 1000, 0);
-    private final LazyOptional<IEnergyStorage> energyHandler = LazyOptional.of(() -> energyStorage);
+public class PortalBatteryBlockEntity extends BlockEntity implements MultiblockRejoinQueue.Rejoinable {
+    // Handle instead of a direct reference so merges don't have to touch this block entity
+    private NetworkHandle<BatteryMultiblock> batteryNetwork;
+    // No energy of its own - every block hands out a view of the whole network
+    private final LazyOptional<IEnergyStorage> energyHandler = LazyOptional.of(() -> new NetworkEnergyStorage(this));
+
+    // Per-block share written by older saves; only used if the network has no saved record
+    private int legacyEnergy;
 
     // Track multiblock ID for lazy loading
     public UUID batteryMultiblockId;
@@ -38,68 +43,77 @@ public class PortalBatteryBlockEntity extends BlockEntity {
 
         if(tag.contains("batteryMultiblockId")) {
             batteryMultiblockId = tag.getUUID("batteryMultiblockId");
-            // Set to false to trigger the lazy loading logic in the 'tick' method
+            // Not joined until the rejoin queue reattaches it
             this.joinedMultiblock = false;
         } else {
             // If no ID is saved, it's a new block, and onPlace will handle it.
             this.joinedMultiblock = true;
         }
 
-        energyStorage.deserializeNBT(tag.get("Energy"));
+        legacyEnergy = tag.getInt("Energy");
     }
 
-    /**
-     * Static tick method for handling lazy loading and regular updates.
-     * This mirrors the logic in your PortalPowerCableBlockEntity.
-     */
-    public static void tick(Level level, BlockPos pos, BlockState state, PortalBatteryBlockEntity be) {
-        // Only run on the server and if we haven't joined the multiblock yet
-        //Logger.sendMessage("Battery " + pos.toString().substring(0, 8) + " tick", true);
-        if(!level.isClientSide && !be.joinedMultiblock) {
-
-
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide && !joinedMultiblock) {
+            MultiblockRejoinQueue.enqueue(this);
+        }
+    }
 
+    @Override
+    public void rejoinMultiblock() {
+        // Only run on the server and if we haven't joined the multiblock yet
+        if(!level.isClientSide && !joinedMultiblock) {
             // Use the saved ID to get or create the multiblock
-            be.batteryMultiblock = BatteryMultiblock.getOrCreateBatteryMultiblock(be.batteryMultiblockId, level);
+            BatteryMultiblock multiblock = BatteryMultiblock.getOrCreateBatteryMultiblock(batteryMultiblockId, level);
 
             // Add this block to the multiblock (this is where the logging occurs)
-            if (be.batteryMultiblock != null) {
-                be.batteryMultiblock.addBattery(pos);
-                be.joinedMultiblock = true;
+            if (multiblock != null) {
+                setBatteryMultiblock(multiblock);
+                multiblock.rejoinBattery(worldPosition, legacyEnergy);
+                legacyEnergy = 0;
 
-                // Ensure the BlockEntity is marked for saving if the multiblock reference was just set.
             }
         }
-
-        // Add your existing tick logic here (e.g., energy transfer, etc.)
     }
 
     @Override
     protected void saveAdditional(CompoundTag tag) {
         super.saveAdditional(tag);
 
+        // The charge itself is saved with the network in StorageNetworkData
+        BatteryMultiblock batteryMultiblock = getBatteryMultiblock();
         if(batteryMultiblock != null) {
             tag.putUUID("batteryMultiblockId", batteryMultiblock.getMultiblockId());
-        } else if(batteryMultiblockId != null) {
-            tag.putUUID("batteryMultiblockId", batteryMultiblockId);
+        } else {
+            if(batteryMultiblockId != null) {
+                tag.putUUID("batteryMultiblockId", batteryMultiblockId);
+            }
+            // Not rejoined yet - keep an old save's share until it has been handed over
+            if (legacyEnergy > 0) {
+                tag.putInt("Energy", legacyEnergy);
+            }
         }
-
-        tag.put("Energy", energyStorage.serializeNBT());
     }
 
     // Public method to set multiblock
     public void setBatteryMultiblock(BatteryMultiblock multiblock) {
-        this.batteryMultiblock = multiblock;
+        this.batteryNetwork = multiblock != null ? multiblock.getHandle() : null;
         if (multiblock != null) {
+            if (!multiblock.getMultiblockId().equals(batteryMultiblockId)) {
+                // The saved ID must follow the network, or this block would reload into a ghost
+                setChanged();
+            }
             this.batteryMultiblockId = multiblock.getMultiblockId();
-            // IMPORTANT: If setting on Place, mark as joined to skip the tick logic
+            // Set on place as well, so a queued rejoin won't add the block a second time
             this.joinedMultiblock = true;
         }
     }
 
     // Add public getter for multiblock
     public BatteryMultiblock getBatteryMultiblock() {
-        return batteryMultiblock;
+        return batteryNetwork != null ? batteryNetwork.resolve() : null;
     }
 
     @Nonnull
@@ -112,10 +126,12 @@ public class PortalBatteryBlockEntity extends BlockEntity {
     }
 
     public int getEnergyStored() {
-        return energyStorage.getEnergyStored();
+        BatteryMultiblock multiblock = getBatteryMultiblock();
+        return multiblock != null ? multiblock.getStoredEnergy() : 0;
     }
 
     public int getMaxEnergyStored() {
-        return energyStorage.getMaxEnergyStored();
+        BatteryMultiblock multiblock = getBatteryMultiblock();
+        return multiblock != null ? multiblock.getMaxCapacity() : 0;
     }
 }
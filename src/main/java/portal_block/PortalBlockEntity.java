@@ -7,12 +7,13 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import portal_multiblock.MultiblockRejoinQueue;
 import portal_multiblock.PortalMultiblockManager;
 import portal_multiblock.PortalStructure;
 
 import java.util.UUID;
 
-public class PortalBlockEntity extends BlockEntity {
+public class PortalBlockEntity extends BlockEntity implements MultiblockRejoinQueue.Rejoinable {
     public PortalStructure portalStructure;
     private UUID portalStructureId;
     public boolean joinedPortalStructure = false;
@@ -52,36 +53,43 @@ public class PortalBlockEntity extends BlockEntity {
         }
     }
 
-    public static void tick(Level level, BlockPos pos, BlockState state, PortalBlockEntity be) {
-        if (!level.isClientSide && !be.joinedPortalStructure) {
-            if (be.portalStructureId == null) {
-                be.joinedPortalStructure = true;
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide && !joinedPortalStructure) {
+            MultiblockRejoinQueue.enqueue(this);
+        }
+    }
+
+    @Override
+    public void rejoinMultiblock() {
+        if (!level.isClientSide && !joinedPortalStructure) {
+            if (portalStructureId == null) {
+                joinedPortalStructure = true;
                 return;
             }
 
             // Get or create the portal structure
-            be.portalStructure = PortalStructure.getOrCreatePortalStructure(be.portalStructureId, level);
+            portalStructure = PortalStructure.getOrCreatePortalStructure(portalStructureId, level);
 
-            if (be.portalStructure != null) {
+            if (portalStructure != null) {
                 // Check if we need to transfer data TO this block
-                if (be.portalStructure.needsPrimaryStorage()) {
-                    be.portalStructure.transferPrimaryStorage();
+                if (portalStructure.needsPrimaryStorage()) {
+                    portalStructure.transferPrimaryStorage();
                 }
 
                 // Check if we have stored data that needs to be restored
-                if (be.storedPortalData != null && be.isPrimaryStorage) {
-                    be.portalStructure.loadFromNBT(be.storedPortalData);
-                    be.storedPortalData = null; // Clear after loading
-                    Logger.sendMessage("Restored portal data from PortalBlockEntity at " + pos, true);
+                if (storedPortalData != null && isPrimaryStorage) {
+                    portalStructure.loadFromNBT(storedPortalData);
+                    storedPortalData = null; // Clear after loading
+                    Logger.sendMessage("Restored portal data from PortalBlockEntity at " + worldPosition, true);
                 }
 
-                be.portalStructure.addPortalBlock(pos);
-                be.joinedPortalStructure = true;
-                be.setChanged();
+                portalStructure.addPortalBlock(worldPosition);
+                joinedPortalStructure = true;
+                setChanged();
             }
         }
-
-        // Visual effects or other tick logic can go here
     }
 
     @Override
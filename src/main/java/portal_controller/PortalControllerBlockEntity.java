@@ -16,7 +16,7 @@ import java.util.UUID;
 import java.util.List;
 import java.util.Collections;
 
-public class PortalControllerBlockEntity extends BlockEntity {
+public class PortalControllerBlockEntity extends BlockEntity implements MultiblockRejoinQueue.Rejoinable {
     public PortalStructure portalStructure;
     private UUID portalStructureId;
     public boolean joinedPortalStructure = false;
@@ -56,43 +56,44 @@ public class PortalControllerBlockEntity extends BlockEntity {
         }
     }
 
-    public static void tick(Level level, BlockPos pos, BlockState state, PortalControllerBlockEntity be) {
-        if (!level.isClientSide && !be.joinedPortalStructure) {
-            if (be.portalStructureId == null) {
-                be.joinedPortalStructure = true;
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide && !joinedPortalStructure) {
+            MultiblockRejoinQueue.enqueue(this);
+        }
+    }
+
+    @Override
+    public void rejoinMultiblock() {
+        if (!level.isClientSide && !joinedPortalStructure) {
+            if (portalStructureId == null) {
+                joinedPortalStructure = true;
                 return;
             }
 
             // Get or create the portal structure
-            be.portalStructure = PortalStructure.getOrCreatePortalStructure(be.portalStructureId, level);
+            portalStructure = PortalStructure.getOrCreatePortalStructure(portalStructureId, level);
 
-            if (be.portalStructure != null) {
+            if (portalStructure != null) {
                 // Check if we need to transfer data TO this block
-                if (be.portalStructure.needsPrimaryStorage()) {
-                    be.portalStructure.transferPrimaryStorage();
+                if (portalStructure.needsPrimaryStorage()) {
+                    portalStructure.transferPrimaryStorage();
                 }
 
                 // Check if we have stored data that needs to be restored
-                if (be.storedPortalData != null && be.isPrimaryStorage) {
-                    be.portalStructure.loadFromNBT(be.storedPortalData);
-                    be.storedPortalData = null; // Clear after loading
-                    Logger.sendMessage("Restored portal data from PortalControllerBlockEntity at " + pos, true);
+                if (storedPortalData != null && isPrimaryStorage) {
+                    portalStructure.loadFromNBT(storedPortalData);
+                    storedPortalData = null; // Clear after loading
+                    Logger.sendMessage("Restored portal data from PortalControllerBlockEntity at " + worldPosition, true);
                 }
 
-                be.portalStructure.addPortalControllerBlock(be);
-                be.joinedPortalStructure = true;
-                be.setChanged();
-            }
-        }
-
-        // Tick the portal structure
-        if (be.portalStructure != null && !level.isClientSide) {
-            // PortalStructure tick is now handled by PortalManager
-            // We just need to ensure the structure is still valid
-            if (!be.portalStructure.isValid() && be.portalStructure.isActive()) {
-                be.portalStructure.setActive(false);
+                portalStructure.addPortalControllerBlock(this);
+                joinedPortalStructure = true;
+                setChanged();
             }
         }
+        // Invalid portals are closed by PortalRevalidationQueue's validity listener and PortalManager - nothing to poll here
     }
 
     @Override
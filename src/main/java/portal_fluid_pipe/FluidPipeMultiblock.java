@@ -6,6 +6,9 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import portal_fluid_tank.TankMultiblock;
+import portal_multiblock.BlockPosSet;
+import portal_multiblock.ConnectedComponents;
+import portal_multiblock.NetworkHandle;
 import portal_multiblock.PortalMultiblockManager;
 import portal_multiblock.PortalStructure;
 import advanced_portals.Logger;
@@ -14,7 +17,8 @@ import java.util.*;
 public class FluidPipeMultiblock {
     public UUID id;
     private Level level;
-    private Set<BlockPos> pipeBlockPositions;
+    private final BlockPosSet pipeBlockPositions;
+    private final NetworkHandle<FluidPipeMultiblock> handle;
     public Map<UUID, Set<BlockPos>> connectedTankMultiblocksMap;
     public Set<TankMultiblock> connectedTankMultiblocks;
 
@@ -24,7 +28,8 @@ public class FluidPipeMultiblock {
     public FluidPipeMultiblock(UUID id, Level level) {
         this.id = id;
         this.level = level;
-        this.pipeBlockPositions = new HashSet<>();
+        this.pipeBlockPositions = new BlockPosSet();
+        this.handle = new NetworkHandle<>(this);
         this.connectedTankMultiblocksMap = new HashMap<>();
         this.connectedTankMultiblocks = new HashSet<>();
         this.connectedPortalStructuresMap = new HashMap<>();
@@ -141,9 +146,9 @@ public class FluidPipeMultiblock {
                     TankMultiblock tankMultiblock = null;
                     tankMultiblock = TankMultiblock.getMultiblockFromBlockEntity(neighborPos, level);
                     if (tankMultiblock == null && tankBE.tankMultiblockId != null) {
-                        tankMultiblock = TankMultiblock.getOrCreateTankMultiblock(tankBE.tankMultiblockId, level);
-                        tankMultiblock.addTank(neighborPos);
-                        tankBE.setTankMultiblock(tankMultiblock);
+                        // Same path as the rejoin queue, so the tank only restores membership
+                        tankBE.rejoinMultiblock();
+                        tankMultiblock = tankBE.getTankMultiblock();
                         Logger.sendMessage("REPOPULATION: Restored tank multiblock at " + neighborPos + " for pipe at " + pos, true);
                     }
                     if (tankMultiblock != null) {
@@ -158,8 +163,8 @@ public class FluidPipeMultiblock {
 
     private static FluidPipeMultiblock mergeAllAdjacentMultiblocks(Set<FluidPipeMultiblock> multiblocksToMerge) {
         if (multiblocksToMerge.isEmpty()) return null;
-        Iterator<FluidPipeMultiblock> iterator = multiblocksToMerge.iterator();
-        FluidPipeMultiblock mainMultiblock = iterator.next();
+        // Union by size: the largest network survives, so only the smaller ones get moved
+        FluidPipeMultiblock mainMultiblock = Collections.max(multiblocksToMerge, Comparator.comparingInt(multiblock -> multiblock.pipeBlockPositions.size()));
 
         if (multiblocksToMerge.size() == 1) {
             Logger.sendMessage("Only one adjacent FluidPipeMultiblock " + mainMultiblock.id.toString().substring(0, 8) + " found", true);
@@ -171,11 +176,7 @@ public class FluidPipeMultiblock {
         int totalTankConnectionsBefore = mainMultiblock.connectedTankMultiblocksMap.size();
         int totalPortalConnectionsBefore = mainMultiblock.connectedPortalStructuresMap.size();
 
-        Set<BlockPos> allPositionsToUpdate = new HashSet<>();
-        while (iterator.hasNext()) {
-            FluidPipeMultiblock otherMultiblock = iterator.next();
-            allPositionsToUpdate.addAll(otherMultiblock.pipeBlockPositions);
-
+        for (FluidPipeMultiblock otherMultiblock : multiblocksToMerge) {
             if (otherMultiblock.id.equals(mainMultiblock.id)) continue;
 
             int pipesToAdd = otherMultiblock.pipeBlockPositions.size();
@@ -183,11 +184,12 @@ public class FluidPipeMultiblock {
             int portalConnectionsToAdd = otherMultiblock.connectedPortalStructuresMap.size();
             mainMultiblock.mergeWith(otherMultiblock);
             PortalMultiblockManager.removeFluidPipeMultiblock(otherMultiblock);
+            // Block entities of the absorbed network follow through its handle - no per-block rewrite
+            otherMultiblock.handle.forwardTo(mainMultiblock.handle);
 
             Logger.sendMessage("Merged FluidPipeMultiblock " + otherMultiblock.id.toString().substring(0, 8) + " into " + mainMultiblock.id.toString().substring(0, 8) + " (+" + pipesToAdd + " pipes, +" + tankConnectionsToAdd + " tank connections, +" + portalConnectionsToAdd + " portal connections)", true);
         }
 
-        updateAllBlockEntityReferences(mainMultiblock, allPositionsToUpdate);
         int totalPipesAdded = mainMultiblock.pipeBlockPositions.size() - totalPipesBefore;
         int totalTankConnectionsAdded = mainMultiblock.connectedTankMultiblocksMap.size() - totalTankConnectionsBefore;
         int totalPortalConnectionsAdded = mainMultiblock.connectedPortalStructuresMap.size() - totalPortalConnectionsBefore;
@@ -196,22 +198,12 @@ public class FluidPipeMultiblock {
         return mainMultiblock;
     }
 
-    private static void updateAllBlockEntityReferences(FluidPipeMultiblock multiblock, Set<BlockPos> positionsToUpdate) {
-        if (multiblock.level == null) return;
-        int updatedCount = 0;
-        for (BlockPos pos : positionsToUpdate) {
-            BlockEntity blockEntity = multiblock.level.getBlockEntity(pos);
-            if (blockEntity instanceof PortalFluidPipeBlockEntity) {
-                ((PortalFluidPipeBlockEntity) blockEntity).setMultiblock(multiblock);
-                updatedCount++;
-            }
-        }
-        Logger.sendMessage("Updated " + updatedCount + " fluid pipe block entity references to FluidPipeMultiblock " + multiblock.id.toString().substring(0, 8), true);
-    }
-
     public void handlePipeBlockBreak(BlockPos removedPos) {
+        // Connections below are edited in place and may move to split-off networks
+        PortalMultiblockManager.markStorageChanged(id);
         Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " removing pipe at " + removedPos + " (currently " + pipeBlockPositions.size() + " pipes)", true);
         pipeBlockPositions.remove(removedPos);
+        PortalMultiblockManager.unindexFluidPipeBlock(level, removedPos, this);
 
         // CRITICAL: Remove portal connections for this pipe
         removePortalConnectionsForPipe(removedPos);
@@ -220,6 +212,94 @@ public class FluidPipeMultiblock {
         if (pipeBlockPositions.isEmpty()) {
             PortalMultiblockManager.removeFluidPipeMultiblock(this);
             Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " DESTROYED (no pipes remaining)", true);
+            return;
+        }
+
+        // Check if cutting this pipe separated the network
+        List<BlockPosSet> detachedComponents = ConnectedComponents.findDetachedComponents(pipeBlockPositions, removedPos);
+        if (!detachedComponents.isEmpty()) {
+            Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " splitting into " + (detachedComponents.size() + 1) + " components", true);
+            splitIntoComponents(detachedComponents);
+        }
+    }
+
+    private void splitIntoComponents(List<BlockPosSet> detachedComponents) {
+        for (BlockPosSet component : detachedComponents) {
+            pipeBlockPositions.removeAll(component);
+
+            FluidPipeMultiblock newMultiblock = new FluidPipeMultiblock(UUID.randomUUID(), level);
+            for (BlockPos pos : component) {
+                newMultiblock.addPipePosition(pos);
+            }
+
+            // CRITICAL: Connections made through the detached pipes follow them to the new network
+            transferTankConnections(newMultiblock, component);
+            transferPortalConnections(newMultiblock, component);
+
+            Logger.sendMessage("Created new FluidPipeMultiblock " + newMultiblock.id.toString().substring(0, 8) + " with " + component.size() + " pipes from split", true);
+        }
+
+        Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " now has " + pipeBlockPositions.size() + " pipes after split", true);
+    }
+
+    private void transferTankConnections(FluidPipeMultiblock newMultiblock, Set<BlockPos> component) {
+        for (UUID tankId : new ArrayList<>(connectedTankMultiblocksMap.keySet())) {
+            Set<BlockPos> connectionPoints = connectedTankMultiblocksMap.get(tankId);
+            Set<BlockPos> pointsToMove = new HashSet<>();
+            for (BlockPos pipePos : connectionPoints) {
+                if (component.contains(pipePos)) {
+                    pointsToMove.add(pipePos);
+                }
+            }
+            if (pointsToMove.isEmpty()) continue;
+
+            TankMultiblock tank = PortalMultiblockManager.getTankMultiblock(tankId);
+            for (BlockPos pipePos : pointsToMove) {
+                if (tank != null) {
+                    removeTankConnection(tank, pipePos);
+                    tank.removePipeConnectionFromPipe(this.id, pipePos);
+                    newMultiblock.addTankConnection(tank, pipePos);
+                } else {
+                    connectionPoints.remove(pipePos);
+                    if (!newMultiblock.connectedTankMultiblocksMap.containsKey(tankId)) {
+                        newMultiblock.connectedTankMultiblocksMap.put(tankId, new HashSet<>());
+                    }
+                    newMultiblock.connectedTankMultiblocksMap.get(tankId).add(pipePos);
+                }
+            }
+
+            if (connectionPoints.isEmpty()) {
+                connectedTankMultiblocksMap.remove(tankId);
+                connectedTankMultiblocks.removeIf(existing -> existing.getMultiblockId().equals(tankId));
+            }
+            Logger.sendMessage("Moved " + pointsToMove.size() + " connection points to TankMultiblock " + tankId.toString().substring(0, 8) + " over to new FluidPipeMultiblock " + newMultiblock.id.toString().substring(0, 8), true);
+        }
+    }
+
+    private void transferPortalConnections(FluidPipeMultiblock newMultiblock, Set<BlockPos> component) {
+        for (UUID portalId : new ArrayList<>(connectedPortalStructuresMap.keySet())) {
+            Set<BlockPos> connectionPoints = connectedPortalStructuresMap.get(portalId);
+            Set<BlockPos> pointsToMove = new HashSet<>();
+            for (BlockPos pipePos : connectionPoints) {
+                if (component.contains(pipePos)) {
+                    pointsToMove.add(pipePos);
+                }
+            }
+            if (pointsToMove.isEmpty()) continue;
+
+            connectionPoints.removeAll(pointsToMove);
+            if (connectionPoints.isEmpty()) {
+                connectedPortalStructuresMap.remove(portalId);
+            }
+            for (BlockPos pipePos : pointsToMove) {
+                newMultiblock.addPortalConnectionFromPortal(portalId, pipePos);
+            }
+
+            // CRITICAL: Keep the portal side pointing at the network that actually owns these pipes
+            PortalStructure portal = PortalMultiblockManager.getPortalStructure(portalId);
+            if (portal != null) {
+                portal.reassignFluidPipeConnectionPoints(this.id, newMultiblock.id, pointsToMove);
+            }
         }
     }
 
@@ -283,6 +363,7 @@ public class FluidPipeMultiblock {
 
     public void addPipePosition(BlockPos pos) {
         pipeBlockPositions.add(pos);
+        PortalMultiblockManager.indexFluidPipeBlock(level, pos, this);
         BlockEntity blockEntity = level.getBlockEntity(pos);
         if (blockEntity instanceof PortalFluidPipeBlockEntity) {
             ((PortalFluidPipeBlockEntity) blockEntity).setMultiblock(this);
@@ -314,6 +395,8 @@ public class FluidPipeMultiblock {
         connectedTankMultiblocks.add(tank);
 
         if (isNewConnection) {
+            // Only a tank new to this pipe changes what its portals can reach
+            PortalMultiblockManager.markStorageChanged(id);
             Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " CONNECTED to TankMultiblock " + tankId.toString().substring(0, 8) + " via pipe at " + pipePos, true);
         } else {
             Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " added connection to TankMultiblock " + tankId.toString().substring(0, 8) + " at " + pipePos + " (" + connectedTankMultiblocksMap.get(tankId).size() + " total connections)", true);
@@ -342,6 +425,7 @@ public class FluidPipeMultiblock {
             if (connectionPoints.isEmpty()) {
                 connectedTankMultiblocksMap.remove(tankId);
                 connectedTankMultiblocks.remove(tank);
+                PortalMultiblockManager.markStorageChanged(id);
                 Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " DISCONNECTED from TankMultiblock " + tankId.toString().substring(0, 8) + " (no more connection points)", true);
             } else if (hadConnection) {
                 Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " removed connection point to TankMultiblock " + tankId.toString().substring(0, 8) + " at " + pipePos + " (" + connectionPoints.size() + " connection points remain)", true);
@@ -353,6 +437,7 @@ public class FluidPipeMultiblock {
 
     // NEW METHOD: Add portal connection from portal side
     public void addPortalConnectionFromPortal(UUID portalId, BlockPos pipePos) {
+        PortalMultiblockManager.markPortalStorageChanged(portalId);
         Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " connected to PortalStructure " + portalId.toString().substring(0, 8) + " at " + pipePos, true);
         if (!connectedPortalStructuresMap.containsKey(portalId)) {
             connectedPortalStructuresMap.put(portalId, new HashSet<>());
@@ -362,6 +447,7 @@ public class FluidPipeMultiblock {
 
     // NEW METHOD: Remove portal connection from portal side
     public void removePortalConnectionFromPortal(UUID portalId, BlockPos pipePos) {
+        PortalMultiblockManager.markPortalStorageChanged(portalId);
         Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " disconnected from PortalStructure " + portalId.toString().substring(0, 8) + " at " + pipePos, true);
         if (connectedPortalStructuresMap.containsKey(portalId)) {
             Set<BlockPos> connectionPoints = connectedPortalStructuresMap.get(portalId);
@@ -373,10 +459,16 @@ public class FluidPipeMultiblock {
     }
 
     public void mergeWith(FluidPipeMultiblock other) {
+        // Portals on either side now reach the other side's storage
+        PortalMultiblockManager.markStorageChanged(id);
+        PortalMultiblockManager.markStorageChanged(other.id);
         Logger.sendMessage("FluidPipeMultiblock " + id.toString().substring(0, 8) + " merging with " + other.id.toString().substring(0, 8), true);
 
         // Add all pipe positions
-        this.pipeBlockPositions.addAll(other.pipeBlockPositions);
+        for (BlockPos pos : other.pipeBlockPositions) {
+            this.pipeBlockPositions.add(pos);
+            PortalMultiblockManager.indexFluidPipeBlock(level, pos, this);
+        }
 
         // CRITICAL: Merge tank connection maps
         for (Map.Entry<UUID, Set<BlockPos>> entry : other.connectedTankMultiblocksMap.entrySet()) {
@@ -435,6 +527,10 @@ public class FluidPipeMultiblock {
         return connectedTankMultiblocksMap.containsKey(tankId) && !connectedTankMultiblocksMap.get(tankId).isEmpty();
     }
 
+    public NetworkHandle<FluidPipeMultiblock> getHandle() {
+        return handle;
+    }
+
     public Set<BlockPos> getPipeBlockPositions() {
         return Collections.unmodifiableSet(pipeBlockPositions);
     }
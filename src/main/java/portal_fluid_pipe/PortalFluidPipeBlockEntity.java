@@ -14,12 +14,15 @@ import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.IFluidHandler;
 import net.minecraftforge.fluids.capability.templates.FluidTank;
+import portal_multiblock.MultiblockRejoinQueue;
+import portal_multiblock.NetworkHandle;
 
 import javax.annotation.Nonnull;
 import java.util.UUID;
 
-public class PortalFluidPipeBlockEntity extends BlockEntity {
-    public FluidPipeMultiblock multiblock;
+public class PortalFluidPipeBlockEntity extends BlockEntity implements MultiblockRejoinQueue.Rejoinable {
+    // Handle instead of a direct reference so merges don't have to touch this block entity
+    private NetworkHandle<FluidPipeMultiblock> network;
     public boolean joinedMultiblock = true;
 
     private final FluidTank fluidTank = new FluidTank(1000) {
@@ -50,15 +53,24 @@ public class PortalFluidPipeBlockEntity extends BlockEntity {
         fluidTank.readFromNBT(tag.getCompound("Fluid"));
     }
 
-    public static void tick(Level level, BlockPos pos, BlockState state, PortalFluidPipeBlockEntity be) {
-        if(!level.isClientSide && !be.joinedMultiblock) {
-            be.multiblock = FluidPipeMultiblock.getOrCreateFluidPipeMultiblock(be.fluidPipeMultiblockId, level);
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide && !joinedMultiblock) {
+            MultiblockRejoinQueue.enqueue(this);
+        }
+    }
+
+    @Override
+    public void rejoinMultiblock() {
+        if(!level.isClientSide && !joinedMultiblock) {
+            FluidPipeMultiblock multiblock = FluidPipeMultiblock.getOrCreateFluidPipeMultiblock(fluidPipeMultiblockId, level);
 
-            if (be.multiblock != null) {
-                be.multiblock.addPipePosition(be.getBlockPos());
+            if (multiblock != null) {
+                multiblock.addPipePosition(worldPosition);
                 // CRITICAL: Reconnect to nearby tanks during lazy loading
-                FluidPipeMultiblock.scanAndConnectToNearbyTanks(be.multiblock, pos, level);
-                be.joinedMultiblock = true;
+                FluidPipeMultiblock.scanAndConnectToNearbyTanks(multiblock, worldPosition, level);
+                joinedMultiblock = true;
             }
         }
     }
@@ -67,6 +79,7 @@ public class PortalFluidPipeBlockEntity extends BlockEntity {
     protected void saveAdditional(CompoundTag tag) {
         super.saveAdditional(tag);
 
+        FluidPipeMultiblock multiblock = getMultiblock();
         if(multiblock != null) {
             tag.putUUID("fluidPipeMultiblockId", multiblock.id);
         } else if(fluidPipeMultiblockId != null) {
@@ -77,7 +90,7 @@ public class PortalFluidPipeBlockEntity extends BlockEntity {
     }
 
     public void setMultiblock(FluidPipeMultiblock multiblock) {
-        this.multiblock = multiblock;
+        this.network = multiblock != null ? multiblock.getHandle() : null;
         if (multiblock != null) {
             this.fluidPipeMultiblockId = multiblock.id;
             this.joinedMultiblock = true;
@@ -85,7 +98,7 @@ public class PortalFluidPipeBlockEntity extends BlockEntity {
     }
 
     public FluidPipeMultiblock getMultiblock() {
-        return multiblock;
+        return network != null ? network.resolve() : null;
     }
 
     @Nonnull
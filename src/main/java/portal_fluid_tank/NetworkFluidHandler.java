@@ -0,0 +1,65 @@
+package portal_fluid_tank;
+
+import net.minecraft.world.level.material.Fluids;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Forge fluid view of a whole tank network, handed out by every tank block.
+ * The network holds one fluid type at a time; fills and drains are queued on it and
+ * settled once at the end of the tick. The network is resolved on every call so merges
+ * and splits never leave a stale facade behind.
+ */
+public class NetworkFluidHandler implements IFluidHandler {
+    private final PortalFluidTankBlockEntity blockEntity;
+
+    public NetworkFluidHandler(PortalFluidTankBlockEntity blockEntity) {
+        this.blockEntity = blockEntity;
+    }
+
+    @Override
+    public int getTanks() {
+        return 1;
+    }
+
+    @Override
+    public @Nonnull FluidStack getFluidInTank(int tank) {
+        return blockEntity.getFluid();
+    }
+
+    @Override
+    public int getTankCapacity(int tank) {
+        return blockEntity.getMaxFluidStored();
+    }
+
+    @Override
+    public boolean isFluidValid(int tank, @Nonnull FluidStack stack) {
+        TankMultiblock multiblock = blockEntity.getTankMultiblock();
+        return multiblock != null && multiblock.canHold(stack.getFluid());
+    }
+
+    @Override
+    public int fill(FluidStack resource, FluidAction action) {
+        TankMultiblock multiblock = blockEntity.getTankMultiblock();
+        if (multiblock == null || resource.isEmpty()) return 0;
+        return multiblock.queueFill(resource.getFluid(), resource.getAmount(), action.simulate());
+    }
+
+    @Override
+    public @Nonnull FluidStack drain(FluidStack resource, FluidAction action) {
+        TankMultiblock multiblock = blockEntity.getTankMultiblock();
+        if (multiblock == null || resource.isEmpty() || resource.getFluid() != multiblock.getFluidType()) return FluidStack.EMPTY;
+        return drain(resource.getAmount(), action);
+    }
+
+    @Override
+    public @Nonnull FluidStack drain(int maxDrain, FluidAction action) {
+        TankMultiblock multiblock = blockEntity.getTankMultiblock();
+        if (multiblock == null || multiblock.getFluidType() == Fluids.EMPTY) return FluidStack.EMPTY;
+
+        int drained = multiblock.queueDrain(maxDrain, action.simulate());
+        return drained > 0 ? new FluidStack(multiblock.getFluidType(), drained) : FluidStack.EMPTY;
+    }
+}
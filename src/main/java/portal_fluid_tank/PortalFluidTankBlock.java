@@ -1,6 +1,5 @@
 package portal_fluid_tank;
 
-import advanced_portals.PortalBlockEntities;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.BaseEntityBlock;
@@ -8,8 +7,6 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.EntityBlock;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.entity.BlockEntity;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.MapColor;
 import org.jetbrains.annotations.Nullable;
@@ -62,10 +59,4 @@ public class PortalFluidTankBlock extends BaseEntityBlock {
         return new PortalFluidTankBlockEntity(pos, state);
     }
 
-    @Nullable
-    @Override
-    public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-        return createTickerHelper(type, PortalBlockEntities.PORTAL_FLUIDTANK_BLOCK_ENTITY.get(),
-                level.isClientSide ? null : PortalFluidTankBlockEntity::tick);
-    }
 }
\ No newline at end of file
@@ -5,28 +5,33 @@ import advanced_portals.PortalBlockEntities;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.Fluids;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.IFluidHandler;
-import net.minecraftforge.fluids.capability.templates.FluidTank;
+import net.minecraftforge.registries.ForgeRegistries;
+import portal_multiblock.MultiblockRejoinQueue;
+import portal_multiblock.NetworkHandle;
 
 import javax.annotation.Nonnull;
 import java.util.UUID;
 
-public class PortalFluidTankBlockEntity extends BlockEntity {
-    private TankMultiblock tankMultiblock;
-    private final FluidTank fluidTank = new FluidTank(16000) {
-        @Override
-        protected void onContentsChanged() {
-            setChanged();
-        }
-    };
-    private final LazyOptional<IFluidHandler> fluidHandler = LazyOptional.of(() -> fluidTank);
+public class PortalFluidTankBlockEntity extends BlockEntity implements MultiblockRejoinQueue.Rejoinable {
+    // Handle instead of a direct reference so merges don't have to touch this block entity
+    private NetworkHandle<TankMultiblock> tankNetwork;
+    // No fluid of its own - every block hands out a view of the whole network
+    private final LazyOptional<IFluidHandler> fluidHandler = LazyOptional.of(() -> new NetworkFluidHandler(this));
+
+    // Per-block share written by older saves; only used if the network has no saved record
+    private int legacyFluid;
+    private Fluid legacyFluidType = Fluids.EMPTY;
 
     // Track multiblock ID for lazy loading
     public UUID tankMultiblockId;
@@ -49,19 +54,36 @@ public class PortalFluidTankBlockEntity extends BlockEntity {
             this.joinedMultiblock = true;
         }
 
-        fluidTank.readFromNBT(tag.getCompound("Fluid"));
+        if(tag.contains("FluidAmount")) {
+            legacyFluid = tag.getInt("FluidAmount");
+            Fluid fluid = ForgeRegistries.FLUIDS.getValue(ResourceLocation.tryParse(tag.getString("FluidName")));
+            legacyFluidType = fluid != null ? fluid : Fluids.EMPTY;
+        } else {
+            // Older saves kept a per-block tank
+            FluidStack legacy = FluidStack.loadFluidStackFromNBT(tag.getCompound("Fluid"));
+            legacyFluid = legacy.getAmount();
+            legacyFluidType = legacy.getFluid();
+        }
     }
 
-    /**
-     * Static tick method for handling lazy loading and regular updates.
-     */
-    public static void tick(Level level, BlockPos pos, BlockState state, PortalFluidTankBlockEntity be) {
-        if(!level.isClientSide && !be.joinedMultiblock) {
-            be.tankMultiblock = TankMultiblock.getOrCreateTankMultiblock(be.tankMultiblockId, level);
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide && !joinedMultiblock) {
+            MultiblockRejoinQueue.enqueue(this);
+        }
+    }
 
-            if (be.tankMultiblock != null) {
-                be.tankMultiblock.addTank(pos);
-                be.joinedMultiblock = true;
+    @Override
+    public void rejoinMultiblock() {
+        if(!level.isClientSide && !joinedMultiblock) {
+            TankMultiblock multiblock = TankMultiblock.getOrCreateTankMultiblock(tankMultiblockId, level);
+
+            if (multiblock != null) {
+                setTankMultiblock(multiblock);
+                multiblock.rejoinTank(worldPosition, legacyFluidType, legacyFluid);
+                legacyFluid = 0;
+                legacyFluidType = Fluids.EMPTY;
             }
         }
     }
@@ -70,19 +92,30 @@ public class PortalFluidTankBlockEntity extends BlockEntity {
     protected void saveAdditional(CompoundTag tag) {
         super.saveAdditional(tag);
 
+        // The fluid itself is saved with the network in StorageNetworkData
+        TankMultiblock tankMultiblock = getTankMultiblock();
         if(tankMultiblock != null) {
             tag.putUUID("tankMultiblockId", tankMultiblock.getMultiblockId());
-        } else if(tankMultiblockId != null) {
-            tag.putUUID("tankMultiblockId", tankMultiblockId);
+        } else {
+            if(tankMultiblockId != null) {
+                tag.putUUID("tankMultiblockId", tankMultiblockId);
+            }
+            // Not rejoined yet - keep an old save's share until it has been handed over
+            if (legacyFluid > 0 && legacyFluidType != Fluids.EMPTY) {
+                tag.putInt("FluidAmount", legacyFluid);
+                tag.putString("FluidName", ForgeRegistries.FLUIDS.getKey(legacyFluidType).toString());
+            }
         }
-
-        tag.put("Fluid", fluidTank.writeToNBT(new CompoundTag()));
     }
 
     // Public method to set multiblock
     public void setTankMultiblock(TankMultiblock multiblock) {
-        this.tankMultiblock = multiblock;
+        this.tankNetwork = multiblock != null ? multiblock.getHandle() : null;
         if (multiblock != null) {
+            if (!multiblock.getMultiblockId().equals(tankMultiblockId)) {
+                // The saved ID must follow the network, or this block would reload into a ghost
+                setChanged();
+            }
             this.tankMultiblockId = multiblock.getMultiblockId();
             this.joinedMultiblock = true;
         }
@@ -90,7 +123,7 @@ public class PortalFluidTankBlockEntity extends BlockEntity {
 
     // Add public getter for multiblock
     public TankMultiblock getTankMultiblock() {
-        return tankMultiblock;
+        return tankNetwork != null ? tankNetwork.resolve() : null;
     }
 
     @Nonnull
@@ -103,14 +136,19 @@ public class PortalFluidTankBlockEntity extends BlockEntity {
     }
 
     public int getFluidStored() {
-        return fluidTank.getFluidAmount();
+        TankMultiblock multiblock = getTankMultiblock();
+        return multiblock != null ? multiblock.getStoredFluid() + multiblock.getPendingFill() : 0;
     }
 
     public int getMaxFluidStored() {
-        return fluidTank.getCapacity();
+        TankMultiblock multiblock = getTankMultiblock();
+        return multiblock != null ? multiblock.getMaxCapacity() : 0;
     }
 
     public FluidStack getFluid() {
-        return fluidTank.getFluid();
+        TankMultiblock multiblock = getTankMultiblock();
+        if (multiblock == null) return FluidStack.EMPTY;
+        int stored = getFluidStored();
+        return stored > 0 && multiblock.getFluidType() != Fluids.EMPTY ? new FluidStack(multiblock.getFluidType(), stored) : FluidStack.EMPTY;
     }
 }
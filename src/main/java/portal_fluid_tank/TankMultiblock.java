@@ -1,31 +1,55 @@
 package portal_fluid_tank;
 
+import advanced_portals.Config;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.Fluids;
+import net.minecraftforge.registries.ForgeRegistries;
 import portal_fluid_pipe.FluidPipeMultiblock;
 import portal_fluid_pipe.PortalFluidPipeBlockEntity;
+import portal_multiblock.BlockPosSet;
+import portal_multiblock.ConnectedComponents;
+import portal_multiblock.NetworkHandle;
 import portal_multiblock.PortalMultiblockManager;
+import portal_multiblock.StorageNetworkData;
+import portal_multiblock.StorageTransferBatcher;
 import advanced_portals.Logger;
 import java.util.*;
 
 public class TankMultiblock {
     private final UUID multiblockId;
-    private final Set<BlockPos> tankBlocks;
+    private final BlockPosSet tankBlocks;
+    private final NetworkHandle<TankMultiblock> handle;
     public Set<UUID> connectedPortalsId;
     private Level level = null;
 
     // Track pipe multiblock connections with specific tank blocks
     public Map<UUID, Set<BlockPos>> connectedPipeMultiblocksMap;
 
+    // The only copy of the network's fluid - persisted per network in StorageNetworkData, block entities only save the ID
     private int storedFluid;
+    // What storedFluid is made of; only changes while the network is empty
+    private Fluid fluidType = Fluids.EMPTY;
     private final int capacityPerTank = 16000;
+    // Capability transfers per tick, so a bigger array also fills faster
+    private final int transferRatePerTank = 1000;
+    // Capability fills/drains accepted this tick, settled in one update by StorageTransferBatcher
+    private int pendingFill;
+    private int pendingDrain;
+    // Members from the saved record whose chunks haven't loaded yet - they still count toward capacity
+    private int unloadedMembers;
+    // Created from a saved record, so rejoining blocks only restore membership
+    private boolean restoredFromSave;
 
     public TankMultiblock(UUID multiblockId, Level level) {
         this.multiblockId = multiblockId;
-        this.tankBlocks = new HashSet<>();
+        this.tankBlocks = new BlockPosSet();
+        this.handle = new NetworkHandle<>(this);
         this.connectedPortalsId = new HashSet<>();
         this.level = level;
         this.storedFluid = 0;
@@ -41,6 +65,12 @@ public class TankMultiblock {
             Logger.sendMessage(String.format("TankMultiblock: Generated new ID %s on load/tick", multiblockId.toString().substring(0, 8)), true);
         }
 
+        StorageNetworkData data = StorageNetworkData.get(level);
+        if (data != null) {
+            // Blocks unloaded during a merge still carry the absorbed network's ID
+            multiblockId = data.resolve(multiblockId);
+        }
+
         TankMultiblock existing = PortalMultiblockManager.getTankMultiblock(multiblockId);
         if (existing != null) {
             Logger.sendMessage(String.format("TankMultiblock: Found existing multiblock with ID %s on load/tick.", multiblockId.toString().substring(0, 8)), true);
@@ -48,6 +78,16 @@ public class TankMultiblock {
         }
 
         TankMultiblock newMultiblock = new TankMultiblock(multiblockId, level);
+        StorageNetworkData.SavedNetwork saved = data != null ? data.getSaved(multiblockId) : null;
+        if (saved != null) {
+            // A fluid that's no longer registered can't be restored
+            if (saved.fluid() != null && saved.fluid() != Fluids.EMPTY) {
+                newMultiblock.fluidType = saved.fluid();
+                newMultiblock.storedFluid = saved.amount();
+            }
+            newMultiblock.unloadedMembers = saved.members();
+            newMultiblock.restoredFromSave = true;
+        }
         Logger.sendMessage(String.format("TankMultiblock: Recreated multiblock with ID %s from saved data on load/tick.", multiblockId.toString().substring(0, 8)), true);
         return newMultiblock;
     }
@@ -63,7 +103,8 @@ public class TankMultiblock {
             resultMultiblock.addTank(pos);
             Logger.sendMessage("New TankMultiblock " + resultMultiblock.multiblockId.toString().substring(0, 8) + " created with 1 tank at " + pos, true);
         } else {
-            resultMultiblock = mergeAllAdjacentMultiblocks(adjacentMultiblocks);
+            // Networks holding another fluid stay separate - the new tank only bridges the compatible ones
+            resultMultiblock = mergeAllAdjacentMultiblocks(selectCompatibleMultiblocks(adjacentMultiblocks));
             resultMultiblock.addTank(pos);
             Logger.sendMessage("TankMultiblock " + resultMultiblock.multiblockId.toString().substring(0, 8) + " added tank at " + pos + " (total: " + resultMultiblock.tankBlocks.size() + " tanks)", true);
         }
@@ -73,10 +114,41 @@ public class TankMultiblock {
     }
 
     public void addTank(BlockPos pos) {
-        tankBlocks.add(pos);
+        if (tankBlocks.add(pos)) {
+            StorageNetworkData.markChanged(this);
+            PortalMultiblockManager.onTankCapacityChanged(this, capacityPerTank);
+        }
+        PortalMultiblockManager.indexTankBlock(level, pos, this);
         Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " added tank at " + pos + " (total: " + tankBlocks.size() + " tanks)", true);
     }
 
+    // Rejoin after load only restores membership - the fluid comes from the network's saved record.
+    // legacyFluid is the per-block share older saves wrote, used only for networks without a record.
+    public void rejoinTank(BlockPos pos, Fluid legacyType, int legacyFluid) {
+        if (tankBlocks.contains(pos)) {
+            PortalMultiblockManager.indexTankBlock(level, pos, this);
+            return;
+        }
+        if (unloadedMembers > 0) {
+            // Already counted in the saved capacity
+            unloadedMembers--;
+            tankBlocks.add(pos);
+            PortalMultiblockManager.indexTankBlock(level, pos, this);
+            return;
+        }
+
+        addTank(pos);
+        if (restoredFromSave || legacyFluid <= 0 || legacyType == Fluids.EMPTY) return;
+
+        flushPendingTransfers();
+        if (canHold(legacyType)) {
+            fluidType = legacyType;
+            putFluid(legacyFluid);
+        } else {
+            Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " dropped " + legacyFluid + " mB saved at " + pos + " - network already holds another fluid", true);
+        }
+    }
+
     private static Set<TankMultiblock> findAdjacentTankMultiblocks(BlockPos pos, Level level) {
         Set<TankMultiblock> multiblocks = new HashSet<>();
         for (Direction direction : Direction.values()) {
@@ -109,10 +181,33 @@ public class TankMultiblock {
         }
     }
 
+    // The fluid held by the fullest neighbour wins; empty networks go with any fluid
+    private static Set<TankMultiblock> selectCompatibleMultiblocks(Set<TankMultiblock> adjacentMultiblocks) {
+        TankMultiblock fullest = null;
+        for (TankMultiblock multiblock : adjacentMultiblocks) {
+            // Settle this tick's transfers so the check sees what each network really holds
+            multiblock.flushPendingTransfers();
+            if (multiblock.storedFluid > 0 && (fullest == null || multiblock.storedFluid > fullest.storedFluid)) {
+                fullest = multiblock;
+            }
+        }
+        if (fullest == null) return adjacentMultiblocks;
+
+        Set<TankMultiblock> compatible = new HashSet<>();
+        for (TankMultiblock multiblock : adjacentMultiblocks) {
+            if (multiblock.canHold(fullest.fluidType)) {
+                compatible.add(multiblock);
+            } else {
+                Logger.sendMessage("TankMultiblock " + multiblock.multiblockId.toString().substring(0, 8) + " kept separate - holds a different fluid than " + fullest.multiblockId.toString().substring(0, 8), true);
+            }
+        }
+        return compatible;
+    }
+
     private static TankMultiblock mergeAllAdjacentMultiblocks(Set<TankMultiblock> multiblocksToMerge) {
         if (multiblocksToMerge.isEmpty()) return null;
-        Iterator<TankMultiblock> iterator = multiblocksToMerge.iterator();
-        TankMultiblock mainMultiblock = iterator.next();
+        // Union by size: the largest network survives, so only the smaller ones get moved
+        TankMultiblock mainMultiblock = Collections.max(multiblocksToMerge, Comparator.comparingInt(multiblock -> multiblock.tankBlocks.size()));
 
         if (multiblocksToMerge.size() == 1) {
             Logger.sendMessage("Only one adjacent TankMultiblock " + mainMultiblock.multiblockId.toString().substring(0, 8) + " found", true);
@@ -123,22 +218,22 @@ public class TankMultiblock {
         int totalTanksBefore = mainMultiblock.tankBlocks.size();
         int totalFluidBefore = mainMultiblock.storedFluid;
 
-        Set<BlockPos> allPositionsToUpdate = new HashSet<>();
-        while (iterator.hasNext()) {
-            TankMultiblock otherMultiblock = iterator.next();
-            allPositionsToUpdate.addAll(otherMultiblock.tankBlocks);
-
+        for (TankMultiblock otherMultiblock : multiblocksToMerge) {
             if (otherMultiblock.multiblockId.equals(mainMultiblock.multiblockId)) continue;
 
             int tanksToAdd = otherMultiblock.tankBlocks.size();
             int fluidToAdd = otherMultiblock.storedFluid;
             mainMultiblock.mergeWith(otherMultiblock);
             PortalMultiblockManager.removeTankMultiblock(otherMultiblock);
+            // Block entities of the absorbed network follow through its handle - no per-block rewrite.
+            // Ones in unloaded chunks follow the saved forward when they load.
+            otherMultiblock.handle.forwardTo(mainMultiblock.handle);
+            StorageNetworkData data = StorageNetworkData.get(mainMultiblock.level);
+            if (data != null) data.forward(otherMultiblock.multiblockId, mainMultiblock.multiblockId);
 
             Logger.sendMessage("Merged TankMultiblock " + otherMultiblock.multiblockId.toString().substring(0, 8) + " into " + mainMultiblock.multiblockId.toString().substring(0, 8) + " (+" + tanksToAdd + " tanks, +" + fluidToAdd + " mB)", true);
         }
 
-        updateAllBlockEntityReferences(mainMultiblock, allPositionsToUpdate);
         int totalTanksAdded = mainMultiblock.tankBlocks.size() - totalTanksBefore;
         int totalFluidAdded = mainMultiblock.storedFluid - totalFluidBefore;
         Logger.sendMessage("Tank merge complete: " + totalTanksAdded + " total tanks added, " + totalFluidAdded + " mB transferred", true);
@@ -146,37 +241,38 @@ public class TankMultiblock {
         return mainMultiblock;
     }
 
-    private static void updateAllBlockEntityReferences(TankMultiblock multiblock, Set<BlockPos> positionsToUpdate) {
-        if (multiblock.level == null) return;
-        int updatedCount = 0;
-        for (BlockPos pos : positionsToUpdate) {
-            BlockEntity blockEntity = multiblock.level.getBlockEntity(pos);
-            if (blockEntity instanceof PortalFluidTankBlockEntity) {
-                ((PortalFluidTankBlockEntity) blockEntity).setTankMultiblock(multiblock);
-                updatedCount++;
-            }
-        }
-        Logger.sendMessage("Updated " + updatedCount + " tank block entity references to TankMultiblock " + multiblock.multiblockId.toString().substring(0, 8), true);
-    }
-
     public void handleTankBlockBreak(BlockPos removedPos) {
+        // Settle this tick's transfers while the old capacity still applies
+        flushPendingTransfers();
         Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " removing tank at " + removedPos + " (currently " + tankBlocks.size() + " tanks)", true);
 
         if (this.tankBlocks.remove(removedPos)) {
+            PortalMultiblockManager.unindexTankBlock(level, removedPos, this);
             // SIMPLE: Remove pipe connections for this tank
             removePipeConnectionsForTank(removedPos);
 
-            if (tankBlocks.isEmpty()) {
+            if (tankBlocks.isEmpty() && unloadedMembers == 0) {
                 PortalMultiblockManager.removeTankMultiblock(this);
+                StorageNetworkData data = StorageNetworkData.get(level);
+                if (data != null) data.forget(multiblockId);
                 Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " DESTROYED (no tanks remaining)", true);
                 return;
             }
 
-            // Check if the multiblock needs to split into multiple components
-            List<Set<BlockPos>> disconnectedComponents = findDisconnectedComponents();
-            if (disconnectedComponents.size() > 1) {
-                Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " splitting into " + disconnectedComponents.size() + " components", true);
-                splitIntoComponents(disconnectedComponents);
+            // The broken block's capacity goes with it
+            StorageNetworkData.markChanged(this);
+            PortalMultiblockManager.onTankCapacityChanged(this, -capacityPerTank);
+            if (storedFluid > getMaxCapacity()) {
+                consumeFluid(storedFluid - getMaxCapacity());
+            }
+            // The rest of the network is in unloaded chunks - nothing loaded around the break to split
+            if (tankBlocks.isEmpty()) return;
+
+            // Only explore around the break - a full split runs only if the neighbours really disconnected
+            List<BlockPosSet> detachedComponents = ConnectedComponents.findDetachedComponents(tankBlocks, removedPos);
+            if (!detachedComponents.isEmpty()) {
+                Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " splitting into " + (detachedComponents.size() + 1) + " components", true);
+                splitIntoComponents(detachedComponents);
             } else {
                 Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " now has " + tankBlocks.size() + " tanks (no split needed)", true);
             }
@@ -200,46 +296,31 @@ public class TankMultiblock {
         }
     }
 
-    private List<Set<BlockPos>> findDisconnectedComponents() {
-        Set<BlockPos> visited = new HashSet<>();
-        List<Set<BlockPos>> components = new ArrayList<>();
-        for (BlockPos startPos : tankBlocks) {
-            if (!visited.contains(startPos)) {
-                Set<BlockPos> component = new HashSet<>();
-                floodFill(startPos, component, visited);
-                components.add(component);
-            }
-        }
-        return components;
-    }
-
-    private void floodFill(BlockPos start, Set<BlockPos> component, Set<BlockPos> visited) {
-        if (visited.contains(start)) return;
-        visited.add(start);
-        component.add(start);
-        for (Direction direction : Direction.values()) {
-            BlockPos neighbor = start.relative(direction);
-            if (tankBlocks.contains(neighbor)) {
-                floodFill(neighbor, component, visited);
-            }
-        }
-    }
-
-    private void splitIntoComponents(List<Set<BlockPos>> components) {
+    private void splitIntoComponents(List<BlockPosSet> detachedComponents) {
         // Store the original multiblock ID for connection cleanup
         UUID originalMultiblockId = this.multiblockId;
 
-        // First component keeps the original multiblock
-        Set<BlockPos> mainComponent = components.get(0);
-        this.tankBlocks.clear();
-        this.tankBlocks.addAll(mainComponent);
-        redistributeFluidForSplit(components);
+        // Whatever is still connected keeps the original multiblock (and any unloaded members); detached parts move out
+        int loadedBefore = tankBlocks.size();
+        int membersBefore = getMemberCount();
+        int fluidBefore = storedFluid;
+        for (BlockPosSet component : detachedComponents) {
+            tankBlocks.removeAll(component);
+        }
 
-        // Create new multiblocks for other components
-        for (int i = 1; i < components.size(); i++) {
-            Set<BlockPos> component = components.get(i);
+        // Create new multiblocks for the detached components
+        for (BlockPosSet component : detachedComponents) {
             TankMultiblock newMultiblock = new TankMultiblock(UUID.randomUUID(), level);
-            newMultiblock.tankBlocks.addAll(component);
+            for (BlockPos pos : component) {
+                newMultiblock.tankBlocks.add(pos);
+                PortalMultiblockManager.indexTankBlock(level, pos, newMultiblock);
+            }
+            newMultiblock.fluidType = fluidType;
+            // Each part leaves with fluid in proportion to its blocks; rounding stays with this one
+            int fluidShare = (int) ((long) fluidBefore * component.size() / membersBefore);
+            newMultiblock.storedFluid = fluidShare;
+            this.storedFluid -= fluidShare;
+            StorageNetworkData.markChanged(newMultiblock);
 
             Logger.sendMessage("Created new TankMultiblock " + newMultiblock.multiblockId.toString().substring(0, 8) + " with " + component.size() + " tanks from split", true);
 
@@ -253,10 +334,17 @@ public class TankMultiblock {
         }
 
         // CRITICAL: Update pipe connections for the main multiblock (remove connections to tanks that are no longer in this multiblock)
-        updatePipeConnectionsForMainMultiblock(mainComponent, originalMultiblockId);
+        // Block entities that stayed already reference this multiblock, so only the detached ones were updated above
+        updatePipeConnectionsForMainMultiblock(tankBlocks, originalMultiblockId);
+        StorageNetworkData.markChanged(this);
+
+        // Portals still drawing from this network only see it shrink
+        PortalMultiblockManager.onTankCapacityChanged(this, (tankBlocks.size() - loadedBefore) * capacityPerTank);
+        if (storedFluid != fluidBefore) {
+            notifyFluidChanged(storedFluid - fluidBefore);
+        }
 
-        updateAllBlockEntityReferences(this, mainComponent);
-        Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " now has " + tankBlocks.size() + " tanks after split", true);
+        Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " now has " + tankBlocks.size() + " tanks after split (" + fluidBefore + " mB -> " + storedFluid + " mB kept)", true);
     }
 
     // CRITICAL: Update pipe connections for the main multiblock after split
@@ -340,14 +428,6 @@ public class TankMultiblock {
         }
     }
 
-    private void redistributeFluidForSplit(List<Set<BlockPos>> components) {
-        int totalTanks = components.stream().mapToInt(Set::size).sum();
-        if (totalTanks == 0) return;
-        int originalFluid = this.storedFluid;
-        this.storedFluid = (originalFluid * this.tankBlocks.size()) / totalTanks;
-        Logger.sendMessage("Redistributed fluid: " + originalFluid + " mB -> " + this.storedFluid + " mB for main component", true);
-    }
-
     public void addPipeConnectionFromPipe(UUID pipeId, BlockPos tankPos) {
         Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " connected to FluidPipeMultiblock " + pipeId.toString().substring(0, 8) + " at " + tankPos, true);
         if (!connectedPipeMultiblocksMap.containsKey(pipeId)) {
@@ -370,10 +450,37 @@ public class TankMultiblock {
     public void mergeWith(TankMultiblock other) {
         Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " merging with " + other.multiblockId.toString().substring(0, 8), true);
 
+        // Queued transfers would otherwise settle into a network that no longer exists
+        flushPendingTransfers();
+        other.flushPendingTransfers();
+
         // Merge basic properties
-        this.tankBlocks.addAll(other.tankBlocks);
+        int added = other.unloadedMembers;
+        for (BlockPos pos : other.tankBlocks) {
+            if (this.tankBlocks.add(pos)) added++;
+            PortalMultiblockManager.indexTankBlock(level, pos, this);
+        }
+        this.unloadedMembers += other.unloadedMembers;
         this.connectedPortalsId.addAll(other.connectedPortalsId);
-        this.storedFluid += other.storedFluid;
+        // Portals on this network just grow; those on the absorbed one resolve again when it's unregistered
+        PortalMultiblockManager.onTankCapacityChanged(this, added * capacityPerTank);
+        if (other.storedFluid > 0) {
+            if (canHold(other.fluidType)) {
+                this.fluidType = other.fluidType;
+                this.storedFluid += other.storedFluid;
+                notifyFluidChanged(other.storedFluid);
+            } else if (other.storedFluid > this.storedFluid) {
+                // Placement never merges different fluids; if it happens anyway, the larger pool survives
+                Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " replaced " + storedFluid + " mB with the larger pool of a different fluid from " + other.multiblockId.toString().substring(0, 8), true);
+                notifyFluidChanged(-this.storedFluid);
+                this.fluidType = other.fluidType;
+                this.storedFluid = other.storedFluid;
+                notifyFluidChanged(other.storedFluid);
+            } else {
+                Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " discarded " + other.storedFluid + " mB of a different fluid from " + other.multiblockId.toString().substring(0, 8) + " - kept its larger pool", true);
+            }
+        }
+        StorageNetworkData.markChanged(this);
 
         // CRITICAL: Merge pipe connections
         for (Map.Entry<UUID, Set<BlockPos>> entry : other.connectedPipeMultiblocksMap.entrySet()) {
@@ -415,27 +522,135 @@ public class TankMultiblock {
     }
 
     public int consumeFluid(int amount) {
+        flushPendingTransfers();
+        return takeFluid(amount);
+    }
+
+    public int addFluid(int amount) {
+        flushPendingTransfers();
+        return putFluid(amount);
+    }
+
+    // Portal costs only come out of networks holding the configured activation fluid
+    public int consumePortalFluid(int amount) {
+        return holdsActivationFluid() ? consumeFluid(amount) : 0;
+    }
+
+    public int getPortalFluid() {
+        return holdsActivationFluid() ? storedFluid : 0;
+    }
+
+    public boolean holdsActivationFluid() {
+        return fluidType != Fluids.EMPTY && fluidType == getActivationFluid();
+    }
+
+    // A different fluid can only come in once everything (including this tick's transfers) is gone
+    public boolean canHold(Fluid fluid) {
+        return fluid == fluidType || (storedFluid == 0 && pendingFill == 0 && pendingDrain == 0);
+    }
+
+    // Capability fill: accepts up to this tick's transfer budget and the free space left
+    public int queueFill(Fluid fluid, int amount, boolean simulate) {
+        if (fluid == Fluids.EMPTY || amount <= 0 || !canHold(fluid)) return 0;
+
+        int space = getMaxCapacity() - storedFluid - pendingFill;
+        int budget = tankBlocks.size() * transferRatePerTank - pendingFill;
+        int accepted = Math.max(0, Math.min(amount, Math.min(space, budget)));
+        if (!simulate && accepted > 0) {
+            fluidType = fluid;
+            if (pendingFill == 0 && pendingDrain == 0) {
+                StorageTransferBatcher.schedule(this);
+            }
+            pendingFill += accepted;
+        }
+        return accepted;
+    }
+
+    // Capability drain: hands out what's in the pool now, the counter catches up at the end of the tick
+    public int queueDrain(int amount, boolean simulate) {
+        if (fluidType == Fluids.EMPTY || amount <= 0) return 0;
+
+        int available = storedFluid - pendingDrain;
+        int budget = tankBlocks.size() * transferRatePerTank - pendingDrain;
+        int accepted = Math.max(0, Math.min(amount, Math.min(available, budget)));
+        if (!simulate && accepted > 0) {
+            if (pendingFill == 0 && pendingDrain == 0) {
+                StorageTransferBatcher.schedule(this);
+            }
+            pendingDrain += accepted;
+        }
+        return accepted;
+    }
+
+    public void flushPendingTransfers() {
+        int net = pendingFill - pendingDrain;
+        pendingFill = 0;
+        pendingDrain = 0;
+        if (net > 0) {
+            putFluid(net);
+        } else if (net < 0) {
+            takeFluid(-net);
+        }
+    }
+
+    private int takeFluid(int amount) {
         int fluidToConsume = Math.min(amount, storedFluid);
         storedFluid -= fluidToConsume;
+        if (fluidToConsume != 0) {
+            notifyFluidChanged(-fluidToConsume);
+        }
         Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " consumed " + fluidToConsume + " mB (remaining: " + storedFluid + "/" + getMaxCapacity() + " mB)", true);
         return fluidToConsume;
     }
 
-    public int addFluid(int amount) {
+    private int putFluid(int amount) {
         int capacity = getMaxCapacity();
         int spaceAvailable = capacity - storedFluid;
         int fluidToAdd = Math.min(amount, spaceAvailable);
         storedFluid += fluidToAdd;
+        if (fluidToAdd != 0) {
+            notifyFluidChanged(fluidToAdd);
+        }
         Logger.sendMessage("TankMultiblock " + multiblockId.toString().substring(0, 8) + " added " + fluidToAdd + " mB (now: " + storedFluid + "/" + getMaxCapacity() + " mB)", true);
         return fluidToAdd;
     }
 
+    // Portal totals only count the activation fluid, so other fluids never reach their caches
+    private void notifyFluidChanged(int delta) {
+        if (holdsActivationFluid()) {
+            PortalMultiblockManager.onTankFluidChanged(this, delta);
+        } else {
+            StorageNetworkData.markChanged(this);
+        }
+    }
+
+    public Fluid getFluidType() {
+        return fluidType;
+    }
+
+    public int getPendingFill() {
+        return pendingFill;
+    }
+
+    public int getPendingDrain() {
+        return pendingDrain;
+    }
+
     public int getStoredFluid() {
         return storedFluid;
     }
 
     public int getMaxCapacity() {
-        return tankBlocks.size() * capacityPerTank;
+        return getMemberCount() * capacityPerTank;
+    }
+
+    // Loaded blocks plus members from the saved record that haven't rejoined yet
+    public int getMemberCount() {
+        return tankBlocks.size() + unloadedMembers;
+    }
+
+    public NetworkHandle<TankMultiblock> getHandle() {
+        return handle;
     }
 
     public UUID getMultiblockId() {
@@ -468,6 +683,23 @@ public class TankMultiblock {
 
     @Override
     public String toString() {
-        return String.format("TankMultiblock[%s: %d tanks, %d/%d mB, Connected Pipes: %d, Connected Portals: %d]", multiblockId.toString().substring(0, 8), tankBlocks.size(), storedFluid, getMaxCapacity(), connectedPipeMultiblocksMap.size(), connectedPortalsId.size());
+        return String.format("TankMultiblock[%s: %d tanks, %s %d/%d mB, Connected Pipes: %d, Connected Portals: %d]", multiblockId.toString().substring(0, 8), tankBlocks.size(), ForgeRegistries.FLUIDS.getKey(fluidType), storedFluid, getMaxCapacity(), connectedPipeMultiblocksMap.size(), connectedPortalsId.size());
+    }
+
+    private static Fluid activationFluid = Fluids.WATER;
+
+    // Resolves Config.ACTIVATION_FLUID after the config loads and when a server starts; a change means
+    // every portal's fluid total is stale
+    public static void refreshActivationFluid() {
+        Fluid resolved = ForgeRegistries.FLUIDS.getValue(ResourceLocation.tryParse(Config.ACTIVATION_FLUID));
+        Fluid fluid = resolved != null && resolved != Fluids.EMPTY ? resolved : Fluids.WATER;
+        if (fluid != activationFluid) {
+            activationFluid = fluid;
+            PortalMultiblockManager.markAllStorageChanged();
+        }
+    }
+
+    public static Fluid getActivationFluid() {
+        return activationFluid;
     }
-}
\ No newline at end of file
+}
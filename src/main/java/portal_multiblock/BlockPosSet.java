@@ -0,0 +1,132 @@
+package portal_multiblock;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of block positions stored as {@link BlockPos#asLong} keys in a fastutil {@link LongOpenHashSet}.
+ * Behaves as a normal {@code Set<BlockPos>} for existing callers, while the
+ * {@code *Long} methods let hot paths (flood fills, adjacency checks) run without
+ * allocating a BlockPos per probe.
+ */
+public class BlockPosSet extends AbstractSet<BlockPos> {
+    private final LongOpenHashSet keys;
+
+    public BlockPosSet() {
+        this.keys = new LongOpenHashSet();
+    }
+
+    public BlockPosSet(int expectedSize) {
+        this.keys = new LongOpenHashSet(expectedSize);
+    }
+
+    public BlockPosSet(Collection<BlockPos> positions) {
+        this(positions.size());
+        addAll(positions);
+    }
+
+    // PRIMITIVE API
+
+    public boolean containsLong(long key) {
+        return keys.contains(key);
+    }
+
+    public boolean addLong(long key) {
+        return keys.add(key);
+    }
+
+    public boolean removeLong(long key) {
+        return keys.remove(key);
+    }
+
+    public void forEachLong(LongConsumer action) {
+        keys.forEach(action);
+    }
+
+    public LongIterator longIterator() {
+        return keys.iterator();
+    }
+
+    // Any position with a squared distance of at most maxDistSqr from pos, checked by probing
+    // neighbour offsets instead of walking the whole set
+    public boolean containsNear(BlockPos pos, int maxDistSqr) {
+        long origin = pos.asLong();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (dx * dx + dy * dy + dz * dz <= maxDistSqr && containsLong(BlockPos.offset(origin, dx, dy, dz))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // SET API
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof BlockPos && containsLong(((BlockPos) o).asLong());
+    }
+
+    @Override
+    public boolean add(BlockPos pos) {
+        return addLong(pos.asLong());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof BlockPos && removeLong(((BlockPos) o).asLong());
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends BlockPos> positions) {
+        if (positions instanceof BlockPosSet) {
+            return keys.addAll(((BlockPosSet) positions).keys);
+        }
+        return super.addAll(positions);
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+    }
+
+    @Override
+    public Iterator<BlockPos> iterator() {
+        LongIterator iterator = keys.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public BlockPos next() {
+                return BlockPos.of(iterator.nextLong());
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package portal_multiblock;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Face-connectivity helpers shared by the multiblock types.
+ */
+public final class ConnectedComponents {
+    private static final int[] DX = {1, -1, 0, 0, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1, 0, 0};
+    private static final int[] DZ = {0, 0, 0, 0, 1, -1};
+
+    private ConnectedComponents() {}
+
+    /**
+     * Labels every face-connected component of {@code members} in one pass.
+     * Iterative BFS over packed longs, so chain length is not limited by the thread stack.
+     */
+    public static List<BlockPosSet> label(BlockPosSet members) {
+        List<BlockPosSet> components = new ArrayList<>();
+        BlockPosSet visited = new BlockPosSet(members.size());
+        LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+
+        LongIterator iterator = members.longIterator();
+        while (iterator.hasNext()) {
+            long start = iterator.nextLong();
+            if (!visited.addLong(start)) continue;
+
+            BlockPosSet component = new BlockPosSet();
+            component.addLong(start);
+            queue.enqueue(start);
+
+            while (!queue.isEmpty()) {
+                long current = queue.dequeueLong();
+                for (int d = 0; d < DX.length; d++) {
+                    long next = BlockPos.offset(current, DX[d], DY[d], DZ[d]);
+                    if (members.containsLong(next) && visited.addLong(next)) {
+                        component.addLong(next);
+                        queue.enqueue(next);
+                    }
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+
+    /**
+     * Local split check after {@code removedPos} has been taken out of {@code members}.
+     * Runs one interleaved BFS per remaining neighbour of the removed block and joins
+     * searches as soon as they touch, so the usual "still connected" case only explores
+     * around the break. Returns the components that are now cut off from the rest
+     * (empty when nothing split); whatever is left in {@code members} stays together.
+     */
+    public static List<BlockPosSet> findDetachedComponents(BlockPosSet members, BlockPos removedPos) {
+        long removed = removedPos.asLong();
+
+        long[] seeds = new long[DX.length];
+        int seedCount = 0;
+        for (int i = 0; i < DX.length; i++) {
+            long neighbor = BlockPos.offset(removed, DX[i], DY[i], DZ[i]);
+            if (members.containsLong(neighbor)) {
+                seeds[seedCount++] = neighbor;
+            }
+        }
+
+        // A single remaining neighbour can't be cut off from itself
+        if (seedCount <= 1) return Collections.emptyList();
+
+        int[] parent = new int[seedCount];
+        boolean[] finished = new boolean[seedCount];
+        LongArrayFIFOQueue[] queues = new LongArrayFIFOQueue[seedCount];
+        BlockPosSet[] explored = new BlockPosSet[seedCount];
+        Long2IntOpenHashMap owner = new Long2IntOpenHashMap();
+        owner.defaultReturnValue(-1);
+
+        for (int i = 0; i < seedCount; i++) {
+            parent[i] = i;
+            queues[i] = new LongArrayFIFOQueue();
+            queues[i].enqueue(seeds[i]);
+            explored[i] = new BlockPosSet();
+            explored[i].addLong(seeds[i]);
+            owner.put(seeds[i], i);
+        }
+
+        List<BlockPosSet> detached = new ArrayList<>();
+        int openSearches = seedCount;
+
+        while (openSearches > 1) {
+            for (int i = 0; i < seedCount && openSearches > 1; i++) {
+                if (parent[i] != i || finished[i]) continue;
+
+                // Search ran dry without meeting another one - its component is cut off
+                if (queues[i].isEmpty()) {
+                    finished[i] = true;
+                    detached.add(explored[i]);
+                    openSearches--;
+                    continue;
+                }
+
+                int root = i;
+                long current = queues[root].dequeueLong();
+                for (int d = 0; d < DX.length; d++) {
+                    long next = BlockPos.offset(current, DX[d], DY[d], DZ[d]);
+                    if (!members.containsLong(next)) continue;
+
+                    int other = owner.get(next);
+                    if (other == -1) {
+                        owner.put(next, root);
+                        explored[root].addLong(next);
+                        queues[root].enqueue(next);
+                        continue;
+                    }
+
+                    int otherRoot = find(parent, other);
+                    if (otherRoot != root) {
+                        root = union(parent, queues, explored, root, otherRoot);
+                        openSearches--;
+                    }
+                }
+            }
+        }
+
+        return detached;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Folds the smaller search into the larger one and returns the surviving root
+    private static int union(int[] parent, LongArrayFIFOQueue[] queues, BlockPosSet[] explored, int a, int b) {
+        if (explored[a].size() < explored[b].size()) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+
+        parent[b] = a;
+        explored[a].addAll(explored[b]);
+        while (!queues[b].isEmpty()) {
+            queues[a].enqueue(queues[b].dequeueLong());
+        }
+        explored[b] = null;
+        queues[b] = null;
+        return a;
+    }
+}
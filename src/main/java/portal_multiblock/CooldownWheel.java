@@ -0,0 +1,103 @@
+package portal_multiblock;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Hashed timing wheel of int keys (entity IDs) that expire at a server tick.
+ * Each entry lands in the slot for its expiry tick; advancing the wheel only visits the slots
+ * for ticks that passed, so per-tick cost follows the entries actually expiring rather than
+ * everything on cooldown. Expiries further out than one turn of the wheel stay in their slot
+ * until the round they belong to comes up.
+ */
+public class CooldownWheel {
+    private final IntArrayList[] slotKeys;
+    private final LongArrayList[] slotExpiries;
+    private final int mask;
+    // Latest expiry per key - a slot entry that doesn't match was superseded by a re-add
+    private final Int2LongOpenHashMap expiries = new Int2LongOpenHashMap();
+    private long lastAdvancedTick;
+
+    public CooldownWheel(int minSlots, long startTick) {
+        int slots = Integer.highestOneBit(Math.max(2, minSlots - 1)) << 1;
+        this.slotKeys = new IntArrayList[slots];
+        this.slotExpiries = new LongArrayList[slots];
+        for (int i = 0; i < slots; i++) {
+            slotKeys[i] = new IntArrayList();
+            slotExpiries[i] = new LongArrayList();
+        }
+        this.mask = slots - 1;
+        this.lastAdvancedTick = startTick;
+        this.expiries.defaultReturnValue(Long.MIN_VALUE);
+    }
+
+    public void add(int key, long expiryTick) {
+        // Already past (or due now) - nothing to remember
+        if (expiryTick <= lastAdvancedTick) return;
+
+        expiries.put(key, expiryTick);
+        int slot = (int) (expiryTick & mask);
+        slotKeys[slot].add(key);
+        slotExpiries[slot].add(expiryTick);
+    }
+
+    public boolean contains(int key) {
+        return expiries.containsKey(key);
+    }
+
+    public void remove(int key) {
+        // The slot entry stays behind and is dropped when its tick comes around
+        expiries.remove(key);
+    }
+
+    // Expires everything due up to and including currentTick
+    public void advance(long currentTick) {
+        if (currentTick <= lastAdvancedTick) return;
+
+        // A gap longer than one turn still only needs each slot visited once
+        long from = Math.max(lastAdvancedTick + 1, currentTick - mask);
+        for (long tick = from; tick <= currentTick; tick++) {
+            expireSlot((int) (tick & mask), currentTick);
+        }
+        lastAdvancedTick = currentTick;
+    }
+
+    private void expireSlot(int slot, long currentTick) {
+        IntArrayList keys = slotKeys[slot];
+        LongArrayList slotExpiry = slotExpiries[slot];
+        int kept = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            int key = keys.getInt(i);
+            long expiry = slotExpiry.getLong(i);
+            if (expiry > currentTick) {
+                // Belongs to a later turn of the wheel
+                keys.set(kept, key);
+                slotExpiry.set(kept, expiry);
+                kept++;
+            } else if (expiries.get(key) == expiry) {
+                expiries.remove(key);
+            }
+        }
+        keys.size(kept);
+        slotExpiry.size(kept);
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    public void clear() {
+        for (int i = 0; i <= mask; i++) {
+            slotKeys[i].clear();
+            slotExpiries[i].clear();
+        }
+        expiries.clear();
+    }
+
+    // Empties the wheel and restarts it at another tick, e.g. after switching clocks
+    public void reset(long startTick) {
+        clear();
+        lastAdvancedTick = startTick;
+    }
+}
@@ -0,0 +1,173 @@
+package portal_multiblock;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import net.minecraft.core.BlockPos;
+
+/**
+ * Running shape summary of a portal frame, updated on every block add/remove.
+ * Keeps how many frame blocks sit on each X, Y and Z value plus the bounding box,
+ * so the rectangle check is a handful of counter lookups instead of a walk over the frame.
+ */
+public class FrameGeometry {
+    private final Int2IntOpenHashMap xCounts = new Int2IntOpenHashMap();
+    private final Int2IntOpenHashMap yCounts = new Int2IntOpenHashMap();
+    private final Int2IntOpenHashMap zCounts = new Int2IntOpenHashMap();
+    private int size;
+
+    private int minX, maxX, minY, maxY, minZ, maxZ;
+
+    // Bumped whenever the bounding box moves, so derived values know when to rebuild
+    private int boxVersion;
+
+    public void add(BlockPos pos) {
+        int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+        if (size == 0) {
+            minX = maxX = x;
+            minY = maxY = y;
+            minZ = maxZ = z;
+            boxVersion++;
+        } else if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            minZ = Math.min(minZ, z);
+            maxZ = Math.max(maxZ, z);
+            boxVersion++;
+        }
+
+        xCounts.addTo(x, 1);
+        yCounts.addTo(y, 1);
+        zCounts.addTo(z, 1);
+        size++;
+    }
+
+    public void remove(BlockPos pos) {
+        if (size == 0) return;
+
+        boolean xGone = decrement(xCounts, pos.getX());
+        boolean yGone = decrement(yCounts, pos.getY());
+        boolean zGone = decrement(zCounts, pos.getZ());
+        size--;
+
+        // Only an emptied edge value can shrink the box - rescan the distinct values on that axis
+        if (xGone && (pos.getX() == minX || pos.getX() == maxX)) {
+            minX = min(xCounts);
+            maxX = max(xCounts);
+            boxVersion++;
+        }
+        if (yGone && (pos.getY() == minY || pos.getY() == maxY)) {
+            minY = min(yCounts);
+            maxY = max(yCounts);
+            boxVersion++;
+        }
+        if (zGone && (pos.getZ() == minZ || pos.getZ() == maxZ)) {
+            minZ = min(zCounts);
+            maxZ = max(zCounts);
+            boxVersion++;
+        }
+    }
+
+    public void clear() {
+        xCounts.clear();
+        yCounts.clear();
+        zCounts.clear();
+        size = 0;
+        boxVersion++;
+    }
+
+    public void reset(Iterable<BlockPos> positions) {
+        clear();
+        for (BlockPos pos : positions) {
+            add(pos);
+        }
+    }
+
+    // PLANE AND BOX QUERIES
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getBoxVersion() {
+        return boxVersion;
+    }
+
+    public boolean isVerticalPlane() {
+        return size > 0 && (xCounts.size() == 1 || zCounts.size() == 1);
+    }
+
+    // Same tie-break as before: a single column counts as an X plane
+    public boolean isConstantX() {
+        return xCounts.size() == 1;
+    }
+
+    public int getConstantValue() {
+        return isConstantX() ? minX : minZ;
+    }
+
+    public int getMinY() { return minY; }
+    public int getMaxY() { return maxY; }
+
+    // Horizontal extent along the plane (Z for an X plane, X for a Z plane)
+    public int getMinOther() { return isConstantX() ? minZ : minX; }
+    public int getMaxOther() { return isConstantX() ? maxZ : maxX; }
+
+    public int getInteriorWidth() {
+        return isVerticalPlane() ? getMaxOther() - getMinOther() - 1 : 0;
+    }
+
+    public int getInteriorHeight() {
+        return isVerticalPlane() ? maxY - minY - 1 : 0;
+    }
+
+    /**
+     * True when the frame is exactly the outline of its bounding rectangle.
+     * In a plane, a full bottom/top row and full left/right column are W and H blocks each,
+     * and together they are 2W + 2H - 4 blocks - so if the total matches there is nothing else.
+     */
+    public boolean isHollowRectangle() {
+        if (!isVerticalPlane()) return false;
+
+        int width = getMaxOther() - getMinOther() + 1;
+        int height = maxY - minY + 1;
+        if (width < 2 || height < 2) return false;
+
+        Int2IntOpenHashMap otherCounts = isConstantX() ? zCounts : xCounts;
+        return yCounts.get(minY) == width && yCounts.get(maxY) == width
+                && otherCounts.get(getMinOther()) == height && otherCounts.get(getMaxOther()) == height
+                && size == 2 * width + 2 * height - 4;
+    }
+
+    private static boolean decrement(Int2IntOpenHashMap counts, int key) {
+        int remaining = counts.addTo(key, -1) - 1;
+        if (remaining <= 0) {
+            counts.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private static int min(Int2IntOpenHashMap counts) {
+        int result = Integer.MAX_VALUE;
+        IntIterator iterator = counts.keySet().iterator();
+        while (iterator.hasNext()) {
+            result = Math.min(result, iterator.nextInt());
+        }
+        return result;
+    }
+
+    private static int max(Int2IntOpenHashMap counts) {
+        int result = Integer.MIN_VALUE;
+        IntIterator iterator = counts.keySet().iterator();
+        while (iterator.hasNext()) {
+            result = Math.max(result, iterator.nextInt());
+        }
+        return result;
+    }
+}
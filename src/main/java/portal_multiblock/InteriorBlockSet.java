@@ -0,0 +1,79 @@
+package portal_multiblock;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@code Set<BlockPos>} view of a portal interior backed by an {@link InteriorRegion}.
+ * Membership is a range check and iteration walks the rectangle on demand, so the set costs
+ * the same few fields whether the opening is 1x2 or 128x128. Only {@link #clear()} mutates it,
+ * by dropping the region; adding positions one by one isn't supported.
+ */
+public class InteriorBlockSet extends AbstractSet<BlockPos> {
+    private InteriorRegion region;
+
+    public InteriorRegion getRegion() {
+        return region;
+    }
+
+    public void setRegion(InteriorRegion region) {
+        this.region = region;
+    }
+
+    @Override
+    public int size() {
+        return region == null ? 0 : region.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return region == null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return region != null && o instanceof BlockPos && region.contains((BlockPos) o);
+    }
+
+    @Override
+    public void clear() {
+        // Callers that still treat this as the old HashSet just drop the interior
+        setRegion(null);
+    }
+
+    @Override
+    public Iterator<BlockPos> iterator() {
+        // Snapshot the region so a revalidation mid-iteration can't mix two rectangles
+        InteriorRegion snapshot = region;
+        if (snapshot == null) return Collections.emptyIterator();
+
+        return new Iterator<>() {
+            private int y = snapshot.getMinY();
+            private int other = snapshot.getMinOther();
+
+            @Override
+            public boolean hasNext() {
+                return y <= snapshot.getMaxY();
+            }
+
+            @Override
+            public BlockPos next() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                BlockPos pos = snapshot.isConstantX()
+                        ? new BlockPos(snapshot.getConstantValue(), y, other)
+                        : new BlockPos(other, y, snapshot.getConstantValue());
+
+                if (++other > snapshot.getMaxOther()) {
+                    other = snapshot.getMinOther();
+                    y++;
+                }
+                return pos;
+            }
+        };
+    }
+}
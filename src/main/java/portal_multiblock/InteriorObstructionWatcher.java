@@ -0,0 +1,121 @@
+package portal_multiblock;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+
+/**
+ * Watches block changes inside portal openings so a portal learns about an obstruction
+ * without revalidating. Every portal whose frame is a complete rectangle registers its
+ * interior here, bucketed by chunk section; a block change looks up its section and
+ * only touches the portals whose interior actually contains the position.
+ */
+@Mod.EventBusSubscriber(modid = "advanced_portals", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class InteriorObstructionWatcher {
+    private static final Map<Level, Long2ObjectOpenHashMap<List<PortalStructure>>> sectionIndex = new IdentityHashMap<>();
+    private static final Map<PortalStructure, InteriorRegion> watchedInteriors = new IdentityHashMap<>();
+
+    // Registers the portal's current interior, replacing whatever it had before (null just unregisters)
+    public static void watch(PortalStructure portal, InteriorRegion region) {
+        InteriorRegion previous = watchedInteriors.get(portal);
+        if (previous != null) {
+            forEachSection(previous, (sections, key) -> {
+                List<PortalStructure> portals = sections.get(key);
+                if (portals != null) {
+                    portals.remove(portal);
+                    if (portals.isEmpty()) sections.remove(key);
+                }
+            }, portal.getLevel(), false);
+            watchedInteriors.remove(portal);
+        }
+
+        if (region == null) return;
+
+        watchedInteriors.put(portal, region);
+        forEachSection(region, (sections, key) -> {
+            if (!sections.containsKey(key)) {
+                sections.put(key, new ArrayList<>(1));
+            }
+            sections.get(key).add(portal);
+        }, portal.getLevel(), true);
+    }
+
+    public static void unwatch(PortalStructure portal) {
+        watch(portal, null);
+    }
+
+    @SubscribeEvent
+    public static void onBlockChanged(BlockEvent.NeighborNotifyEvent event) {
+        if (!(event.getLevel() instanceof Level level) || level.isClientSide()) return;
+
+        Long2ObjectOpenHashMap<List<PortalStructure>> sections = sectionIndex.get(level);
+        if (sections == null) return;
+
+        BlockPos pos = event.getPos();
+        List<PortalStructure> portals = sections.get(sectionKey(pos.getX(), pos.getY(), pos.getZ()));
+        if (portals == null) return;
+
+        boolean obstructed = !event.getState().isAir();
+        for (PortalStructure portal : new ArrayList<>(portals)) {
+            InteriorRegion region = watchedInteriors.get(portal);
+            if (region == null || !region.contains(pos)) continue;
+
+            if (obstructed) {
+                portal.markInteriorObstructed(pos);
+            } else if (!portal.isValid()) {
+                // Something was cleared - other cells may still be blocked, so let validation decide
+                portal.requestRevalidation();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        sectionIndex.clear();
+        watchedInteriors.clear();
+    }
+
+    public static void clearLevel(Level level) {
+        sectionIndex.remove(level);
+        watchedInteriors.keySet().removeIf(portal -> portal.getLevel() == level);
+    }
+
+    private interface SectionAction {
+        void apply(Long2ObjectOpenHashMap<List<PortalStructure>> sections, long key);
+    }
+
+    private static void forEachSection(InteriorRegion region, SectionAction action, Level level, boolean create) {
+        Long2ObjectOpenHashMap<List<PortalStructure>> sections = sectionIndex.get(level);
+        if (sections == null) {
+            if (!create) return;
+            sections = new Long2ObjectOpenHashMap<>();
+            sectionIndex.put(level, sections);
+        }
+
+        for (int sx = SectionPos.blockToSectionCoord(region.getMinX()); sx <= SectionPos.blockToSectionCoord(region.getMaxX()); sx++) {
+            for (int sy = SectionPos.blockToSectionCoord(region.getMinY()); sy <= SectionPos.blockToSectionCoord(region.getMaxY()); sy++) {
+                for (int sz = SectionPos.blockToSectionCoord(region.getMinZ()); sz <= SectionPos.blockToSectionCoord(region.getMaxZ()); sz++) {
+                    action.apply(sections, SectionPos.asLong(sx, sy, sz));
+                }
+            }
+        }
+
+        if (sections.isEmpty()) {
+            sectionIndex.remove(level);
+        }
+    }
+
+    private static long sectionKey(int x, int y, int z) {
+        return SectionPos.asLong(
+                SectionPos.blockToSectionCoord(x),
+                SectionPos.blockToSectionCoord(y),
+                SectionPos.blockToSectionCoord(z));
+    }
+}
@@ -0,0 +1,66 @@
+package portal_multiblock;
+
+import net.minecraft.core.BlockPos;
+
+/**
+ * The opening of a portal: one vertical plane plus an inclusive rectangle on it.
+ * "Other" is the horizontal axis along the plane - Z for an X plane, X for a Z plane.
+ */
+public final class InteriorRegion {
+    private final boolean constantX;
+    private final int constantValue;
+    private final int minY, maxY;
+    private final int minOther, maxOther;
+
+    public InteriorRegion(boolean constantX, int constantValue, int minY, int maxY, int minOther, int maxOther) {
+        this.constantX = constantX;
+        this.constantValue = constantValue;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.minOther = minOther;
+        this.maxOther = maxOther;
+    }
+
+    // Interior of a complete rectangular frame, or null if the frame isn't one
+    public static InteriorRegion fromFrame(FrameGeometry geometry) {
+        if (!geometry.isHollowRectangle()) return null;
+        return new InteriorRegion(geometry.isConstantX(), geometry.getConstantValue(),
+                geometry.getMinY() + 1, geometry.getMaxY() - 1,
+                geometry.getMinOther() + 1, geometry.getMaxOther() - 1);
+    }
+
+    public boolean isConstantX() { return constantX; }
+    public int getConstantValue() { return constantValue; }
+    public int getMinY() { return minY; }
+    public int getMaxY() { return maxY; }
+    public int getMinOther() { return minOther; }
+    public int getMaxOther() { return maxOther; }
+
+    public int getMinX() { return constantX ? constantValue : minOther; }
+    public int getMaxX() { return constantX ? constantValue : maxOther; }
+    public int getMinZ() { return constantX ? minOther : constantValue; }
+    public int getMaxZ() { return constantX ? maxOther : constantValue; }
+
+    public int getWidth() { return maxOther - minOther + 1; }
+    public int getHeight() { return maxY - minY + 1; }
+
+    public int size() {
+        return getWidth() * getHeight();
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= getMinX() && x <= getMaxX()
+                && y >= minY && y <= maxY
+                && z >= getMinZ() && z <= getMaxZ();
+    }
+
+    public boolean contains(BlockPos pos) {
+        return contains(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    @Override
+    public String toString() {
+        return (constantX ? "X" : "Z") + "=" + constantValue + " " + getWidth() + "x" + getHeight() +
+                " from (" + getMinX() + ", " + minY + ", " + getMinZ() + ")";
+    }
+}
@@ -0,0 +1,67 @@
+package portal_multiblock;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * Checks a portal interior for non-air blocks one chunk section at a time.
+ * The chunk and section are looked up once per 16x16x16 cube instead of once per cell,
+ * sections that are all air (or whose palette holds nothing but air variants) are
+ * skipped without touching their cells, and the rest are read straight from the section.
+ */
+public final class InteriorScanner {
+    private InteriorScanner() {}
+
+    /**
+     * Returns the first non-air position inside {@code region}, or null if the interior is clear.
+     */
+    public static BlockPos findObstruction(Level level, InteriorRegion region) {
+        int minX = region.getMinX(), maxX = region.getMaxX();
+        int minY = region.getMinY(), maxY = region.getMaxY();
+        int minZ = region.getMinZ(), maxZ = region.getMaxZ();
+
+        for (int chunkX = SectionPos.blockToSectionCoord(minX); chunkX <= SectionPos.blockToSectionCoord(maxX); chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(minZ); chunkZ <= SectionPos.blockToSectionCoord(maxZ); chunkZ++) {
+                LevelChunk chunk = level.getChunk(chunkX, chunkZ);
+                LevelChunkSection[] sections = chunk.getSections();
+
+                for (int sectionY = SectionPos.blockToSectionCoord(minY); sectionY <= SectionPos.blockToSectionCoord(maxY); sectionY++) {
+                    int index = chunk.getSectionIndexFromSectionY(sectionY);
+                    // Outside the build height everything reads as air
+                    if (index < 0 || index >= sections.length) continue;
+
+                    LevelChunkSection section = sections[index];
+                    if (section.hasOnlyAir()) continue;
+                    if (!section.getStates().maybeHas(state -> !state.isAir())) continue;
+
+                    BlockPos obstruction = scanSection(section,
+                            Math.max(minX, SectionPos.sectionToBlockCoord(chunkX)), Math.min(maxX, SectionPos.sectionToBlockCoord(chunkX, 15)),
+                            Math.max(minY, SectionPos.sectionToBlockCoord(sectionY)), Math.min(maxY, SectionPos.sectionToBlockCoord(sectionY, 15)),
+                            Math.max(minZ, SectionPos.sectionToBlockCoord(chunkZ)), Math.min(maxZ, SectionPos.sectionToBlockCoord(chunkZ, 15)));
+                    if (obstruction != null) {
+                        return obstruction;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static BlockPos scanSection(LevelChunkSection section, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                    if (!state.isAir()) {
+                        return new BlockPos(x, y, z);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package portal_multiblock;
+
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayDeque;
+
+/**
+ * One-shot rejoin after load. Block entities of multiblock members queue themselves from
+ * onLoad and are reattached to their network at the start of the next server tick - after the
+ * chunk is fully in the level, so neighbour scans work - instead of keeping a ticker that checks
+ * a flag every tick for the rest of their life.
+ */
+@Mod.EventBusSubscriber(modid = "advanced_portals", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class MultiblockRejoinQueue {
+    public interface Rejoinable {
+        void rejoinMultiblock();
+    }
+
+    private static final ArrayDeque<Rejoinable> pending = new ArrayDeque<>();
+
+    // Called from onLoad: rejoin once on the next server tick - no ticker needed after that
+    public static void enqueue(Rejoinable member) {
+        pending.add(member);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.START || pending.isEmpty()) return;
+
+        // Only what was queued before this tick - a rejoin that loads more chunks waits for the next one
+        int count = pending.size();
+        for (int i = 0; i < count; i++) {
+            Rejoinable member = pending.poll();
+            // Unloaded or broken before its turn
+            if (member instanceof BlockEntity blockEntity && (blockEntity.isRemoved() || blockEntity.getLevel() == null)) {
+                continue;
+            }
+            member.rejoinMultiblock();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        pending.clear();
+    }
+}
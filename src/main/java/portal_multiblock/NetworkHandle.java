@@ -0,0 +1,50 @@
+package portal_multiblock;
+
+/**
+ * Indirection between block entities and the multiblock they belong to.
+ * Every multiblock owns one handle and block entities keep that handle instead of the
+ * multiblock itself. When a multiblock is absorbed by a merge its handle is forwarded to
+ * the survivor, so every block entity of the absorbed network follows without being touched.
+ * Chains of forwards are path-compressed on lookup.
+ */
+public final class NetworkHandle<T> {
+    private T owner;
+    private NetworkHandle<T> forward;
+
+    public NetworkHandle(T owner) {
+        this.owner = owner;
+    }
+
+    public T resolve() {
+        return root().owner;
+    }
+
+    public void forwardTo(NetworkHandle<T> target) {
+        NetworkHandle<T> root = root();
+        NetworkHandle<T> targetRoot = target.root();
+        if (root == targetRoot) return;
+
+        root.forward = targetRoot;
+        root.owner = null;
+    }
+
+    public boolean isForwarded() {
+        return forward != null;
+    }
+
+    private NetworkHandle<T> root() {
+        NetworkHandle<T> root = this;
+        while (root.forward != null) {
+            root = root.forward;
+        }
+
+        // Path compression - point everything we walked straight at the root
+        NetworkHandle<T> current = this;
+        while (current.forward != null && current.forward != root) {
+            NetworkHandle<T> next = current.forward;
+            current.forward = root;
+            current = next;
+        }
+        return root;
+    }
+}
@@ -3,9 +3,6 @@ package portal_multiblock;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.phys.AABB;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class PortalBounds {
     private final BlockPos center;
     private final boolean constantX; // true if X is constant (vertical plane on X), false if Z is constant
@@ -23,43 +20,15 @@ public class PortalBounds {
         this.detectionArea = calculateDetectionArea();
     }
 
-    public static PortalBounds calculateFromFrame(Set<BlockPos> frameBlocks) {
-        if (frameBlocks.isEmpty()) return null;
-
-        // Determine plane orientation
-        Set<Integer> xValues = new HashSet<>();
-        Set<Integer> zValues = new HashSet<>();
-
-        for (BlockPos pos : frameBlocks) {
-            xValues.add(pos.getX());
-            zValues.add(pos.getZ());
-        }
-
-        boolean constantX = xValues.size() == 1;
-        boolean constantZ = zValues.size() == 1;
+    public static PortalBounds fromFrameGeometry(FrameGeometry geometry) {
+        if (!geometry.isVerticalPlane()) return null;
 
-        if (!constantX && !constantZ) return null;
-
-        int constantValue = constantX ? xValues.iterator().next() : zValues.iterator().next();
-
-        // Find min/max coordinates
-        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
-        int minOther = Integer.MAX_VALUE, maxOther = Integer.MIN_VALUE;
-
-        for (BlockPos pos : frameBlocks) {
-            minY = Math.min(minY, pos.getY());
-            maxY = Math.max(maxY, pos.getY());
-
-            if (constantX) {
-                int z = pos.getZ();
-                minOther = Math.min(minOther, z);
-                maxOther = Math.max(maxOther, z);
-            } else {
-                int x = pos.getX();
-                minOther = Math.min(minOther, x);
-                maxOther = Math.max(maxOther, x);
-            }
-        }
+        boolean constantX = geometry.isConstantX();
+        int constantValue = geometry.getConstantValue();
+        int minY = geometry.getMinY();
+        int maxY = geometry.getMaxY();
+        int minOther = geometry.getMinOther();
+        int maxOther = geometry.getMaxOther();
 
         // Calculate interior dimensions
         int interiorWidth = maxOther - minOther - 1;
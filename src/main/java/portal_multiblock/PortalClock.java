@@ -0,0 +1,10 @@
+package portal_multiblock;
+
+/**
+ * Source of the current tick for portal timing - open durations, cooldowns and the scheduler.
+ * The server uses {@link ServerTickClock}; harnesses can swap in a {@link SimulatedClock}
+ * through {@link PortalManager#setClock} and fast-forward without sleeping.
+ */
+public interface PortalClock {
+    long getTick();
+}
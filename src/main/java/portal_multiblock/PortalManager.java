@@ -1,13 +1,18 @@
 package portal_multiblock;
 
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import advanced_portals.Config;
 import advanced_portals.Logger;
 
 import java.util.*;
@@ -15,100 +20,278 @@ import java.util.concurrent.ConcurrentHashMap;
 
 @Mod.EventBusSubscriber(modid = "advanced_portals", bus = Mod.EventBusSubscriber.Bus.FORGE)
 public class PortalManager {
-    private static final Map<UUID, PortalStructure> activePortals = new ConcurrentHashMap<>();
-    private static final Map<UUID, Long> entityCooldowns = new ConcurrentHashMap<>();
+    // Active portals ordered by the tick they're next due; entries dropped from activePortals are skipped when polled
+    private static final Map<UUID, ScheduledPortal> activePortals = new ConcurrentHashMap<>();
+    private static final PriorityQueue<ScheduledPortal> schedule = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.nextDueTick));
+    private static PortalClock clock = new ServerTickClock();
+    // Clock reading for the tick being processed
+    private static long currentTick = 0;
     private static final int COOLDOWN_TICKS = 60; // 3 seconds (20 ticks/second)
+    // Entity IDs that just teleported, expiring COOLDOWN_TICKS later
+    private static final CooldownWheel entityCooldowns = new CooldownWheel(COOLDOWN_TICKS + 1, 0);
+    // Blocks per tick an approaching entity is assumed to cover (faster than sprinting), used to size
+    // the area that keeps a portal on the fast interval
+    private static final double APPROACH_BLOCKS_PER_TICK = 0.5;
 
     // Resource costs
     public static final int ACTIVATION_FLUID_COST = 1000; // 1000 mB
     public static final int MAINTENANCE_POWER_COST = 5; // 5 FE/tick
 
+    // Scheduler counters, see getSchedulerStatistics()
+    private static int processedLastTick = 0;
+    private static long budgetExhaustedTicks = 0;
+    private static long deferredPortalTicks = 0;
+    private static long maxLatenessTicks = 0;
+
+    // Portals with entities waiting to teleport, served round-robin under TELEPORTS_PER_TICK
+    private static final ArrayDeque<ScheduledPortal> teleportRing = new ArrayDeque<>();
+    private static int teleportsLastTick = 0;
+    private static long teleportBudgetExhaustedTicks = 0;
+
+    // Counters are logged at most this often, and only if a budget ran out since the last report
+    private static final int STATS_REPORT_INTERVAL_TICKS = 1200; // 1 minute
+    private static long lastStatsReportTick = 0;
+    private static long reportedBudgetExhaustedTicks = 0;
+    private static long reportedTeleportBudgetExhaustedTicks = 0;
+
+    private static final class ScheduledPortal {
+        final PortalStructure portal;
+        long nextDueTick;
+        long lastProcessedTick;
+        // FIFO of entities found in the detection area, each queued once
+        final ArrayDeque<Entity> teleportQueue = new ArrayDeque<>();
+        final IntOpenHashSet queuedEntityIds = new IntOpenHashSet();
+        boolean inTeleportRing;
+
+        ScheduledPortal(PortalStructure portal, long dueTick) {
+            this.portal = portal;
+            this.nextDueTick = dueTick;
+            this.lastProcessedTick = dueTick - 1;
+        }
+    }
+
     @SubscribeEvent
     public static void onServerTick(TickEvent.ServerTickEvent event) {
         if (event.phase != TickEvent.Phase.END) return;
+        runTick();
+    }
 
-        long currentTime = System.currentTimeMillis();
-        Iterator<Map.Entry<UUID, PortalStructure>> iterator = activePortals.entrySet().iterator();
+    // One pass of portal processing at the clock's current tick. Harnesses using a SimulatedClock
+    // call this directly after advancing it.
+    public static void runTick() {
+        currentTick = clock.getTick();
+        entityCooldowns.advance(currentTick);
+        long budget = Config.PORTAL_TICK_BUDGET_NANOS;
+        long start = System.nanoTime();
+        int processed = 0;
+
+        while (!schedule.isEmpty() && schedule.peek().nextDueTick <= currentTick) {
+            // Always make progress on one portal, then stop once the budget is spent
+            if (budget > 0 && processed > 0 && System.nanoTime() - start >= budget) {
+                budgetExhaustedTicks++;
+                break;
+            }
+
+            ScheduledPortal entry = schedule.poll();
+            PortalStructure portal = entry.portal;
+            if (activePortals.get(portal.getPortalId()) != entry) continue;
 
-        while (iterator.hasNext()) {
-            Map.Entry<UUID, PortalStructure> entry = iterator.next();
-            PortalStructure portal = entry.getValue();
+            processed++;
+            long lateness = currentTick - entry.nextDueTick;
+            deferredPortalTicks += lateness;
+            maxLatenessTicks = Math.max(maxLatenessTicks, lateness);
 
             try {
-                processPortal(portal, currentTime);
+                int elapsedTicks = (int) (currentTick - entry.lastProcessedTick);
+                boolean entitiesNearby = processPortal(entry, elapsedTicks);
 
                 // Remove if portal is no longer active
                 if (!portal.isActive()) {
-                    iterator.remove();
+                    activePortals.remove(portal.getPortalId(), entry);
                     Logger.sendMessage("Portal " + portal.getPortalId().toString().substring(0, 8) + " removed from active processing", true);
+                    continue;
                 }
+
+                // Portals with something in front of them run every tick, idle ones less often
+                entry.lastProcessedTick = currentTick;
+                entry.nextDueTick = currentTick + (entitiesNearby ? 1 : Config.IDLE_PORTAL_INTERVAL_TICKS);
+                schedule.add(entry);
             } catch (Exception e) {
                 Logger.sendMessage("Error processing portal " + portal.getPortalId().toString().substring(0, 8) + ": " + e.getMessage(), true);
-                iterator.remove();
+                activePortals.remove(portal.getPortalId(), entry);
             }
         }
+        processedLastTick = processed;
+
+        drainTeleportQueues();
+        reportDeferredWork();
+    }
+
+    // Budgets that keep running out are worth raising (or portals worth spreading out) - say so in the log
+    private static void reportDeferredWork() {
+        if (currentTick - lastStatsReportTick < STATS_REPORT_INTERVAL_TICKS) return;
+        lastStatsReportTick = currentTick;
 
-        // Clean up old cooldowns
-        entityCooldowns.entrySet().removeIf(entry -> currentTime - entry.getValue() > COOLDOWN_TICKS * 50);
+        long portalExhausted = budgetExhaustedTicks - reportedBudgetExhaustedTicks;
+        long teleportExhausted = teleportBudgetExhaustedTicks - reportedTeleportBudgetExhaustedTicks;
+        if (portalExhausted == 0 && teleportExhausted == 0) return;
+        reportedBudgetExhaustedTicks = budgetExhaustedTicks;
+        reportedTeleportBudgetExhaustedTicks = teleportBudgetExhaustedTicks;
+
+        Logger.sendMessage("Portal scheduler: tick budget ran out on " + portalExhausted + " ticks and teleport budget on " + teleportExhausted +
+                " ticks in the last " + STATS_REPORT_INTERVAL_TICKS + " - " + getSchedulerStatistics(), false);
     }
 
-    private static void processPortal(PortalStructure portal, long currentTime) {
+    // Returns true if entities were near the portal, so it should stay on the fast interval
+    private static boolean processPortal(ScheduledPortal entry, int elapsedTicks) {
+        PortalStructure portal = entry.portal;
         if (!portal.isValid()) {
             portal.setActive(false);
-            return;
+            return false;
         }
 
         // Check if portal is activating side
         if (portal.isActivatingSide()) {
-            // Check power for maintenance
-            if (portal.getCurrentPower() < MAINTENANCE_POWER_COST) {
+            if (!billMaintenance(portal, elapsedTicks)) {
                 Logger.sendMessage("Portal " + portal.getPortalId().toString().substring(0, 8) + " closed due to insufficient power", true);
                 portal.setActive(false);
-                return;
-            }
-
-            // Consume maintenance power
-            if (!portal.consumePower(MAINTENANCE_POWER_COST)) {
-                portal.setActive(false);
-                return;
+                return false;
             }
 
             // Check duration
-            if (portal.isDurationExpired(currentTime)) {
+            if (portal.isDurationExpired(currentTick)) {
                 Logger.sendMessage("Portal " + portal.getPortalId().toString().substring(0, 8) + " closed due to duration expiry", true);
                 portal.setActive(false);
-                return;
+                return false;
             }
         }
 
-        // Entity detection and teleportation
-        detectAndTeleportEntities(portal);
+        // Entity detection - teleports happen later in the tick, from the queue
+        return detectEntities(entry);
+    }
+
+    // Maintenance accrues as debt and is paid every MAINTENANCE_SETTLE_TICKS ticks (or once it reaches
+    // the threshold). In between, only the cached power total is compared against the debt, so a bank
+    // that can no longer cover it still closes the portal on the same tick.
+    private static boolean billMaintenance(PortalStructure portal, int elapsedTicks) {
+        int debt = portal.accrueMaintenance(MAINTENANCE_POWER_COST * elapsedTicks, elapsedTicks);
+        if (portal.getCurrentPower() < debt) {
+            return false;
+        }
+        if (portal.isMaintenanceDue(Config.MAINTENANCE_SETTLE_TICKS, Config.MAINTENANCE_DEBT_THRESHOLD)) {
+            return portal.settleMaintenance();
+        }
+        return true;
     }
 
-    private static void detectAndTeleportEntities(PortalStructure portal) {
+    private static boolean detectEntities(ScheduledPortal entry) {
+        PortalStructure portal = entry.portal;
         PortalBounds bounds = portal.getBounds();
-        if (bounds == null) return;
+        if (bounds == null) return false;
 
         Level level = portal.getLevel();
-        if (!(level instanceof ServerLevel serverLevel)) return;
+        if (!(level instanceof ServerLevel serverLevel)) return false;
+
+        // The detection area is only 0.1 blocks thick, so deciding idleness from it would let a walking
+        // entity cross between two idle checks. One query over the area an entity could reach within an
+        // idle interval finds both: anything in it that could teleport keeps the portal fast, only the
+        // plane itself queues. Entities that can't teleport (creative players, dead or floating ones) are
+        // filtered out by the query itself; ones on cooldown still count, they'll be ready again shortly.
+        AABB detectionArea = bounds.getDetectionArea();
+        double approachMargin = Config.IDLE_PORTAL_INTERVAL_TICKS * APPROACH_BLOCKS_PER_TICK;
+        List<Entity> nearbyEntities = serverLevel.getEntitiesOfClass(Entity.class, detectionArea.inflate(approachMargin), PortalManager::canTeleport);
+
+        for (Entity entity : nearbyEntities) {
+            if (!detectionArea.intersects(entity.getBoundingBox())) continue;
+            if (!entityCooldowns.contains(entity.getId()) && entry.queuedEntityIds.add(entity.getId())) {
+                entry.teleportQueue.add(entity);
+            }
+        }
+        if (!entry.teleportQueue.isEmpty() && !entry.inTeleportRing) {
+            entry.inTeleportRing = true;
+            teleportRing.add(entry);
+        }
+        return !nearbyEntities.isEmpty() || !entry.teleportQueue.isEmpty();
+    }
+
+    // Spends the global teleport budget across every portal with a queue. Each turn hands a portal an
+    // equal slice of what's left, resolves its target once and sends that many entities through it;
+    // portals that still have entities waiting go to the back of the ring for the next turn or tick.
+    private static void drainTeleportQueues() {
+        int budget = Config.TELEPORTS_PER_TICK;
+        int teleported = 0;
+
+        while (!teleportRing.isEmpty() && teleported < budget) {
+            int slice = Math.max(1, (budget - teleported) / teleportRing.size());
+            ScheduledPortal entry = teleportRing.poll();
+            entry.inTeleportRing = false;
+
+            // Closed or re-registered since it queued - its entities will be found again if still there
+            if (activePortals.get(entry.portal.getPortalId()) != entry || !entry.portal.isActive()) {
+                entry.teleportQueue.clear();
+                entry.queuedEntityIds.clear();
+                continue;
+            }
 
-        // Get entities in detection area
-        List<Entity> entities = serverLevel.getEntitiesOfClass(Entity.class, bounds.getDetectionArea());
+            teleported += drainPortalQueue(entry, slice);
 
-        for (Entity entity : entities) {
-            if (isValidForTeleport(entity, portal)) {
-                teleportEntity(entity, portal);
-                break; // Only teleport one entity per tick to prevent lag
+            if (!entry.teleportQueue.isEmpty() && entry.portal.isActive()) {
+                entry.inTeleportRing = true;
+                teleportRing.add(entry);
             }
         }
+
+        if (!teleportRing.isEmpty()) {
+            teleportBudgetExhaustedTicks++;
+        }
+        teleportsLastTick = teleported;
+    }
+
+    private static int drainPortalQueue(ScheduledPortal entry, int limit) {
+        PortalStructure portal = entry.portal;
+        TeleportTarget target = resolveTarget(portal);
+        if (target == null) {
+            // Nowhere to go right now - forget the queue rather than retry every tick
+            entry.teleportQueue.clear();
+            entry.queuedEntityIds.clear();
+            return 0;
+        }
+
+        PortalBounds bounds = portal.getBounds();
+        int teleported = 0;
+        while (teleported < limit && !entry.teleportQueue.isEmpty()) {
+            Entity entity = entry.teleportQueue.poll();
+            entry.queuedEntityIds.remove(entity.getId());
+
+            // The entity may have left, died or been teleported elsewhere since it was queued
+            if (bounds == null || !bounds.getDetectionArea().intersects(entity.getBoundingBox())) continue;
+            if (!isValidForTeleport(entity, portal)) continue;
+
+            if (teleportEntity(entity, portal, target)) {
+                teleported++;
+
+                // Check if portal should close after teleport
+                if (portal.shouldCloseAfterTeleport() && portal.isActivatingSide()) {
+                    portal.setActive(false);
+                    entry.teleportQueue.clear();
+                    entry.queuedEntityIds.clear();
+                    break;
+                }
+            }
+        }
+        return teleported;
     }
 
     private static boolean isValidForTeleport(Entity entity, PortalStructure portal) {
         // Check cooldown
-        if (entityCooldowns.containsKey(entity.getUUID())) {
+        if (entityCooldowns.contains(entity.getId())) {
             return false;
         }
+        return canTeleport(entity);
+    }
 
+    // Whether the entity could ever use a portal, cooldown aside - also what keeps a portal off the idle interval
+    private static boolean canTeleport(Entity entity) {
         // Skip creative players and spectators
         if (entity instanceof Player player) {
             if (player.isCreative() || player.isSpectator()) return false;
@@ -123,10 +306,13 @@ public class PortalManager {
         return true;
     }
 
-    private static void teleportEntity(Entity entity, PortalStructure fromPortal) {
+    // Where a portal's queue is sent this turn - resolved once, then shared by every entity in the batch
+    private record TeleportTarget(PortalStructure portal, ServerLevel level, double x, double y, double z) {}
+
+    private static TeleportTarget resolveTarget(PortalStructure fromPortal) {
         // Get linked portals
         List<UUID> linkedPortals = fromPortal.getLinkedPortals();
-        if (linkedPortals.isEmpty()) return;
+        if (linkedPortals.isEmpty()) return null;
 
         // For now, teleport to first linked portal
         UUID targetPortalId = linkedPortals.get(0);
@@ -134,44 +320,48 @@ public class PortalManager {
 
         if (targetPortal == null || !targetPortal.isValid() || !targetPortal.isActive()) {
             Logger.sendMessage("Target portal " + targetPortalId.toString().substring(0, 8) + " is not available for teleport", true);
-            return;
+            return null;
         }
 
         PortalBounds targetBounds = targetPortal.getBounds();
-        if (targetBounds == null) return;
-
-        // Calculate teleport position (center of target portal)
-        BlockPos targetCenter = targetBounds.getCenter();
-        double targetX = targetCenter.getX() + 0.5;
-        double targetY = targetCenter.getY();
-        double targetZ = targetCenter.getZ() + 0.5;
+        if (targetBounds == null) return null;
 
         // Get target level
         Level targetLevel = targetPortal.getLevel();
-        if (!(targetLevel instanceof ServerLevel targetServerLevel)) return;
+        if (!(targetLevel instanceof ServerLevel targetServerLevel)) return null;
+
+        // Calculate teleport position (center of target portal)
+        BlockPos targetCenter = targetBounds.getCenter();
+        return new TeleportTarget(targetPortal, targetServerLevel,
+                targetCenter.getX() + 0.5, targetCenter.getY(), targetCenter.getZ() + 0.5);
+    }
 
-        // Teleport entity
-        if (entity.changeDimension(targetServerLevel) != null) {
-            entity.teleportTo(targetX, targetY, targetZ);
-            entity.setYRot(entity.getYRot() + 180.0F); // Turn around
+    private static boolean teleportEntity(Entity entity, PortalStructure fromPortal, TeleportTarget target) {
+        // Teleport entity - crossing dimensions replaces non-player entities with a copy under a new ID
+        Entity moved = entity.changeDimension(target.level());
+        if (moved == null) return false;
 
-            // Apply cooldown
-            entityCooldowns.put(entity.getUUID(), System.currentTimeMillis());
+        moved.teleportTo(target.x(), target.y(), target.z());
+        moved.setYRot(moved.getYRot() + 180.0F); // Turn around
 
-            Logger.sendMessage("Teleported entity " + entity.getName().getString() + " from portal " +
-                    fromPortal.getPortalId().toString().substring(0, 8) + " to portal " +
-                    targetPortalId.toString().substring(0, 8), true);
+        // Apply cooldown to whichever entity arrived
+        entityCooldowns.add(moved.getId(), currentTick + COOLDOWN_TICKS);
 
-            // Check if portal should close after teleport
-            if (fromPortal.shouldCloseAfterTeleport() && fromPortal.isActivatingSide()) {
-                fromPortal.setActive(false);
-            }
-        }
+        Logger.sendMessage("Teleported entity " + entity.getName().getString() + " from portal " +
+                fromPortal.getPortalId().toString().substring(0, 8) + " to portal " +
+                target.portal().getPortalId().toString().substring(0, 8), true);
+        return true;
     }
 
     public static void registerActivePortal(PortalStructure portal) {
         if (portal.isActive() && portal.isValid()) {
-            activePortals.put(portal.getPortalId(), portal);
+            ScheduledPortal existing = activePortals.get(portal.getPortalId());
+            if (existing != null && existing.portal == portal) return;
+
+            // Due right away; a replaced entry is left in the queue and skipped when polled
+            ScheduledPortal entry = new ScheduledPortal(portal, clock.getTick());
+            activePortals.put(portal.getPortalId(), entry);
+            schedule.add(entry);
             Logger.sendMessage("Portal " + portal.getPortalId().toString().substring(0, 8) + " registered for active processing", true);
         }
     }
@@ -180,8 +370,58 @@ public class PortalManager {
         activePortals.remove(portal.getPortalId());
     }
 
+    public static PortalClock getClock() {
+        return clock;
+    }
+
+    // Swaps the time source. Cooldowns are dropped and every active portal becomes due at the new clock's tick.
+    public static void setClock(PortalClock newClock) {
+        clock = newClock;
+        currentTick = newClock.getTick();
+        entityCooldowns.reset(currentTick);
+
+        schedule.clear();
+        for (ScheduledPortal entry : activePortals.values()) {
+            entry.nextDueTick = currentTick;
+            entry.lastProcessedTick = currentTick - 1;
+            schedule.add(entry);
+        }
+    }
+
+    // Scheduler state is static, so it outlives the server; the next world starts from a clean slate
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        clearAll();
+    }
+
+    // The wheel only advances forward - a world with a lower game time would otherwise drop every cooldown
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        currentTick = clock.getTick();
+        entityCooldowns.reset(currentTick);
+        lastStatsReportTick = currentTick;
+    }
+
     public static void clearAll() {
         activePortals.clear();
+        schedule.clear();
+        teleportRing.clear();
         entityCooldowns.clear();
     }
+
+    // Tuning counters: deferred portal-ticks is the total lateness of every portal processed after it was due
+    public static Map<String, Long> getSchedulerStatistics() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("activePortals", (long) activePortals.size());
+        stats.put("queuedEntries", (long) schedule.size());
+        stats.put("processedLastTick", (long) processedLastTick);
+        stats.put("budgetExhaustedTicks", budgetExhaustedTicks);
+        stats.put("deferredPortalTicks", deferredPortalTicks);
+        stats.put("maxLatenessTicks", maxLatenessTicks);
+        stats.put("teleportQueuePortals", (long) teleportRing.size());
+        stats.put("teleportsLastTick", (long) teleportsLastTick);
+        stats.put("teleportBudgetExhaustedTicks", teleportBudgetExhaustedTicks);
+        stats.put("entitiesOnCooldown", (long) entityCooldowns.size());
+        return stats;
+    }
 }
\ No newline at end of file
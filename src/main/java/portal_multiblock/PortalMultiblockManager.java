@@ -25,6 +25,17 @@ public class PortalMultiblockManager {
     public  static Map<UUID, TankMultiblock> tankMultiblocks = new HashMap<>();
     public  static Map<UUID, FluidPipeMultiblock> fluidPipeMultiblocks = new HashMap<>();
 
+    // Position -> owner lookup, keyed per dimension and chunk section
+    private static final PositionIndex<BatteryMultiblock> batteryPositions = new PositionIndex<>();
+    private static final PositionIndex<PowerCableMultiblock> powerCablePositions = new PositionIndex<>();
+    private static final PositionIndex<TankMultiblock> tankPositions = new PositionIndex<>();
+    private static final PositionIndex<FluidPipeMultiblock> fluidPipePositions = new PositionIndex<>();
+    private static final PositionIndex<PortalStructure> portalPositions = new PositionIndex<>();
+
+    // Storage dependencies - every cable, pipe, battery and tank ID a portal's storage resolution went
+    // through, mapped back to that portal. A wiring change only invalidates the portals routed through
+    // the network that changed, and capacity/energy/fluid deltas are pushed to just those portals.
+    private static final Map<UUID, List<PortalStructure>> storageDependents = new HashMap<>();
 
     @SubscribeEvent
     public static void onServerStopping(ServerStoppingEvent event) {
@@ -35,6 +46,12 @@ public class PortalMultiblockManager {
         portals.clear();
         portalNameToId.clear();
 
+        batteryPositions.clear();
+        powerCablePositions.clear();
+        tankPositions.clear();
+        fluidPipePositions.clear();
+        portalPositions.clear();
+        storageDependents.clear();
     }
 
     // Core portal management
@@ -50,42 +67,54 @@ public class PortalMultiblockManager {
     // Battery multiblock registry
     public static void addBatteryMultiblock(BatteryMultiblock batteryMultiblock) {
         batteryMultiblocks.put(batteryMultiblock.getMultiblockId(), batteryMultiblock);
+        // Portals resolved while this ID was still missing (e.g. before its chunk loaded) can reach it now
+        markStorageChanged(batteryMultiblock.getMultiblockId());
     }
 
     public static void removeBatteryMultiblock(BatteryMultiblock batteryMultiblock) {
         batteryMultiblocks.remove(batteryMultiblock.getMultiblockId());
+        markStorageChanged(batteryMultiblock.getMultiblockId());
     }
 
     // Power cable multiblock registry
     public static void addPowerCableMultiblock(PowerCableMultiblock powerCableMultiblock) {
         powerCableMultiblocks.put(powerCableMultiblock.id, powerCableMultiblock);
+        markStorageChanged(powerCableMultiblock.id);
     }
 
     public static void removePowerCableMultiblock(PowerCableMultiblock powerCableMultiblock) {
         powerCableMultiblocks.remove(powerCableMultiblock.id);
+        markStorageChanged(powerCableMultiblock.id);
     }
 
     // Tank multiblock registry
     public static void addTankMultiblock(TankMultiblock tankMultiblock) {
         tankMultiblocks.put(tankMultiblock.getMultiblockId(), tankMultiblock);
+        markStorageChanged(tankMultiblock.getMultiblockId());
     }
 
     public static void removeTankMultiblock(TankMultiblock tankMultiblock) {
         tankMultiblocks.remove(tankMultiblock.getMultiblockId());
+        markStorageChanged(tankMultiblock.getMultiblockId());
     }
 
     // Fluid pipe multiblock registry
     public static void addFluidPipeMultiblock(FluidPipeMultiblock fluidPipeMultiblock) {
         fluidPipeMultiblocks.put(fluidPipeMultiblock.id, fluidPipeMultiblock);
+        markStorageChanged(fluidPipeMultiblock.id);
     }
 
     public static void removeFluidPipeMultiblock(FluidPipeMultiblock fluidPipeMultiblock) {
         fluidPipeMultiblocks.remove(fluidPipeMultiblock.id);
+        markStorageChanged(fluidPipeMultiblock.id);
     }
 
     // Portal structure registry
     public static void removePortalStructure(PortalStructure portalStructure) {
         portals.remove(portalStructure.getPortalId());
+        InteriorObstructionWatcher.unwatch(portalStructure);
+        // Drops its dependency registrations so no more deltas are pushed to it
+        portalStructure.invalidateStorage();
     }
 
     // SIMPLE GETTERS - No creation logic
@@ -180,41 +209,66 @@ public class PortalMultiblockManager {
         fluidPipeMultiblocks.entrySet().removeIf(entry -> entry.getValue().getPipeBlockPositions().isEmpty());
     }
 
+    // Position index maintenance - called from the add/merge/split/break paths of each multiblock
+    public static void indexBatteryBlock(Level level, BlockPos pos, BatteryMultiblock multiblock) {
+        batteryPositions.put(level, pos, multiblock);
+    }
+
+    public static void unindexBatteryBlock(Level level, BlockPos pos, BatteryMultiblock multiblock) {
+        batteryPositions.remove(level, pos, multiblock);
+    }
+
+    public static void indexPowerCableBlock(Level level, BlockPos pos, PowerCableMultiblock multiblock) {
+        powerCablePositions.put(level, pos, multiblock);
+    }
+
+    public static void unindexPowerCableBlock(Level level, BlockPos pos, PowerCableMultiblock multiblock) {
+        powerCablePositions.remove(level, pos, multiblock);
+    }
+
+    public static void indexTankBlock(Level level, BlockPos pos, TankMultiblock multiblock) {
+        tankPositions.put(level, pos, multiblock);
+    }
+
+    public static void unindexTankBlock(Level level, BlockPos pos, TankMultiblock multiblock) {
+        tankPositions.remove(level, pos, multiblock);
+    }
+
+    public static void indexFluidPipeBlock(Level level, BlockPos pos, FluidPipeMultiblock multiblock) {
+        fluidPipePositions.put(level, pos, multiblock);
+    }
+
+    public static void unindexFluidPipeBlock(Level level, BlockPos pos, FluidPipeMultiblock multiblock) {
+        fluidPipePositions.remove(level, pos, multiblock);
+    }
+
+    public static void indexPortalBlock(Level level, BlockPos pos, PortalStructure portal) {
+        portalPositions.put(level, pos, portal);
+    }
+
+    public static void unindexPortalBlock(Level level, BlockPos pos, PortalStructure portal) {
+        portalPositions.remove(level, pos, portal);
+    }
+
     // Find multiblocks by position
     public static BatteryMultiblock findBatteryMultiblockAt(BlockPos pos, Level level) {
-        for (BatteryMultiblock multiblock : batteryMultiblocks.values()) {
-            if (multiblock.getLevel() == level && multiblock.getBatteryBlocks().contains(pos)) {
-                return multiblock;
-            }
-        }
-        return null;
+        return batteryPositions.get(level, pos);
     }
 
     public static PowerCableMultiblock findPowerCableMultiblockAt(BlockPos pos, Level level) {
-        for (PowerCableMultiblock multiblock : powerCableMultiblocks.values()) {
-            if (multiblock.getCableBlockPositions().contains(pos)) {
-                return multiblock;
-            }
-        }
-        return null;
+        return powerCablePositions.get(level, pos);
     }
 
     public static TankMultiblock findTankMultiblockAt(BlockPos pos, Level level) {
-        for (TankMultiblock multiblock : tankMultiblocks.values()) {
-            if (multiblock.getLevel() == level && multiblock.getTankBlocks().contains(pos)) {
-                return multiblock;
-            }
-        }
-        return null;
+        return tankPositions.get(level, pos);
     }
 
     public static FluidPipeMultiblock findFluidPipeMultiblockAt(BlockPos pos, Level level) {
-        for (FluidPipeMultiblock multiblock : fluidPipeMultiblocks.values()) {
-            if (multiblock.getPipeBlockPositions().contains(pos)) {
-                return multiblock;
-            }
-        }
-        return null;
+        return fluidPipePositions.get(level, pos);
+    }
+
+    public static PortalStructure findPortalStructureAt(BlockPos pos, Level level) {
+        return portalPositions.get(level, pos);
     }
 
     // Statistics and debugging methods
@@ -259,6 +313,85 @@ public class PortalMultiblockManager {
         return stats;
     }
 
+    // STORAGE DEPENDENCIES
+
+    static void addStorageDependency(UUID networkId, PortalStructure portal) {
+        if (!storageDependents.containsKey(networkId)) {
+            storageDependents.put(networkId, new ArrayList<>(1));
+        }
+        storageDependents.get(networkId).add(portal);
+    }
+
+    static void removeStorageDependency(UUID networkId, PortalStructure portal) {
+        List<PortalStructure> dependents = storageDependents.get(networkId);
+        if (dependents == null) return;
+        dependents.remove(portal);
+        if (dependents.isEmpty()) {
+            storageDependents.remove(networkId);
+        }
+    }
+
+    // A cable, pipe, battery or tank was created, removed, merged, split or (un)wired -
+    // only the portals whose storage routes through it have to resolve again
+    public static void markStorageChanged(UUID networkId) {
+        List<PortalStructure> dependents = storageDependents.get(networkId);
+        if (dependents == null) return;
+        // Invalidating a portal unregisters it from this list, so walk a copy
+        for (PortalStructure portal : dependents.toArray(new PortalStructure[0])) {
+            portal.invalidateStorage();
+        }
+    }
+
+    public static void markPortalStorageChanged(UUID portalId) {
+        PortalStructure portal = portals.get(portalId);
+        if (portal != null) {
+            portal.invalidateStorage();
+        }
+    }
+
+    // Level unloads and activation fluid changes - rare enough to resolve every portal again
+    public static void markAllStorageChanged() {
+        for (PortalStructure portal : portals.values()) {
+            portal.invalidateStorage();
+        }
+        storageDependents.clear();
+    }
+
+    // A battery gained or lost blocks without changing identity (add, rejoin, merge survivor, break, split)
+    public static void onBatteryCapacityChanged(BatteryMultiblock battery, int delta) {
+        List<PortalStructure> dependents = storageDependents.get(battery.getMultiblockId());
+        if (dependents == null) return;
+        for (int i = 0; i < dependents.size(); i++) {
+            dependents.get(i).applyPowerCapacityDelta(delta);
+        }
+    }
+
+    public static void onTankCapacityChanged(TankMultiblock tank, int delta) {
+        List<PortalStructure> dependents = storageDependents.get(tank.getMultiblockId());
+        if (dependents == null) return;
+        for (int i = 0; i < dependents.size(); i++) {
+            dependents.get(i).applyFluidCapacityDelta(delta);
+        }
+    }
+
+    public static void onBatteryEnergyChanged(BatteryMultiblock battery, int delta) {
+        StorageNetworkData.markChanged(battery);
+        List<PortalStructure> dependents = storageDependents.get(battery.getMultiblockId());
+        if (dependents == null) return;
+        for (int i = 0; i < dependents.size(); i++) {
+            dependents.get(i).applyPowerDelta(delta);
+        }
+    }
+
+    public static void onTankFluidChanged(TankMultiblock tank, int delta) {
+        StorageNetworkData.markChanged(tank);
+        List<PortalStructure> dependents = storageDependents.get(tank.getMultiblockId());
+        if (dependents == null) return;
+        for (int i = 0; i < dependents.size(); i++) {
+            dependents.get(i).applyFluidDelta(delta);
+        }
+    }
+
     // Level cleanup - remove all multiblocks from a specific level
     public static void cleanupLevel(Level level) {
         // Clean up battery multiblocks
@@ -282,6 +415,14 @@ public class PortalMultiblockManager {
 
         // Clean up portals
         portals.entrySet().removeIf(entry -> entry.getValue().getLevel() == level);
+
+        batteryPositions.clearLevel(level);
+        powerCablePositions.clearLevel(level);
+        tankPositions.clearLevel(level);
+        fluidPipePositions.clearLevel(level);
+        portalPositions.clearLevel(level);
+        markAllStorageChanged();
+        InteriorObstructionWatcher.clearLevel(level);
     }
 
     // Validation methods for debugging
@@ -0,0 +1,166 @@
+package portal_multiblock;
+
+import advanced_portals.Config;
+import advanced_portals.Logger;
+import portal_battery.BatteryMultiblock;
+import portal_fluid_tank.TankMultiblock;
+
+import java.util.Arrays;
+
+/**
+ * Takes energy and fluid for one portal cost as a unit.
+ * {@link #reserve} checks both totals up front and then draws from every connected battery
+ * and tank in a single pass, remembering how much came from each; {@link #commit} keeps it,
+ * {@link #rollback} puts every unit back where it came from.
+ * Each portal keeps one instance and rebinds it per cost, so paying doesn't allocate.
+ */
+public class PortalResourceTransaction {
+    private enum State { OPEN, RESERVED, COMMITTED, ROLLED_BACK }
+
+    private final PortalStructure portal;
+    private BatteryMultiblock[] batteries;
+    private TankMultiblock[] tanks;
+    // Per-storage scratch, only regrown when the portal's storage arrays outgrow it
+    private int[] energyTaken = new int[0];
+    private int[] fluidTaken = new int[0];
+    private int energyReserved;
+    private int fluidReserved;
+    private State state = State.OPEN;
+
+    PortalResourceTransaction(PortalStructure portal) {
+        this.portal = portal;
+    }
+
+    // Binds to the portal's current storage arrays and clears the last cost
+    PortalResourceTransaction reset() {
+        batteries = portal.getConnectedBatteries();
+        tanks = portal.getConnectedTanks();
+        if (energyTaken.length < batteries.length) {
+            energyTaken = new int[batteries.length];
+        } else {
+            Arrays.fill(energyTaken, 0, batteries.length, 0);
+        }
+        if (fluidTaken.length < tanks.length) {
+            fluidTaken = new int[tanks.length];
+        } else {
+            Arrays.fill(fluidTaken, 0, tanks.length, 0);
+        }
+        energyReserved = 0;
+        fluidReserved = 0;
+        state = State.OPEN;
+        return this;
+    }
+
+    boolean isReserved() {
+        return state == State.RESERVED;
+    }
+
+    // SIMULATE: true if both amounts are available right now, nothing is taken
+    public boolean simulate(int energy, int fluid) {
+        return portal.getCurrentPower() >= energy && portal.getCurrentFluid() >= fluid;
+    }
+
+    public boolean reserve(int energy, int fluid) {
+        if (state != State.OPEN) {
+            throw new IllegalStateException("Transaction already " + state);
+        }
+
+        int availableEnergy = portal.getCurrentPower();
+        int availableFluid = portal.getCurrentFluid();
+        if (availableEnergy < energy || availableFluid < fluid) {
+            Logger.sendMessage("PortalStructure " + portal.getPortalId().toString().substring(0, 8) +
+                    " resources INSUFFICIENT: " + availableEnergy + "/" + energy + " FE, " + availableFluid + "/" + fluid + " mB", true);
+            return false;
+        }
+
+        state = State.RESERVED;
+        energyReserved = energy - drainBatteries(energy, availableEnergy);
+        fluidReserved = fluid - drainTanks(fluid, availableFluid);
+
+        // Totals said yes but storage couldn't deliver - don't keep half a cost
+        if (energyReserved < energy || fluidReserved < fluid) {
+            Logger.sendMessage("PortalStructure " + portal.getPortalId().toString().substring(0, 8) +
+                    " reservation PARTIAL (" + energyReserved + "/" + energy + " FE, " + fluidReserved + "/" + fluid + " mB), rolling back", true);
+            rollback();
+            return false;
+        }
+        return true;
+    }
+
+    public void commit() {
+        if (state != State.RESERVED) {
+            throw new IllegalStateException("Nothing reserved to commit (" + state + ")");
+        }
+        state = State.COMMITTED;
+        portal.markForSave();
+    }
+
+    public void rollback() {
+        if (state != State.RESERVED) return;
+
+        for (int i = 0; i < batteries.length; i++) {
+            if (energyTaken[i] > 0) {
+                batteries[i].addEnergy(energyTaken[i]);
+                energyTaken[i] = 0;
+            }
+        }
+        for (int i = 0; i < tanks.length; i++) {
+            if (fluidTaken[i] > 0) {
+                tanks[i].addFluid(fluidTaken[i]);
+                fluidTaken[i] = 0;
+            }
+        }
+        energyReserved = 0;
+        fluidReserved = 0;
+        state = State.ROLLED_BACK;
+    }
+
+    public int getEnergyReserved() { return energyReserved; }
+    public int getFluidReserved() { return fluidReserved; }
+
+    // Proportional mode takes floor(amount * stored / total) from each battery; the rounding
+    // leftover (or everything, in priority mode) is then taken in array order. Returns what's left.
+    private int drainBatteries(int amount, int total) {
+        int remaining = amount;
+        if (amount <= 0) return 0;
+
+        if (Config.PROPORTIONAL_STORAGE_DRAIN && total > 0) {
+            for (int i = 0; i < batteries.length; i++) {
+                int share = (int) ((long) amount * batteries[i].getStoredEnergy() / total);
+                if (share > 0) {
+                    int taken = batteries[i].consumeEnergy(share);
+                    energyTaken[i] += taken;
+                    remaining -= taken;
+                }
+            }
+        }
+        for (int i = 0; i < batteries.length && remaining > 0; i++) {
+            int taken = batteries[i].consumeEnergy(remaining);
+            energyTaken[i] += taken;
+            remaining -= taken;
+        }
+        return remaining;
+    }
+
+    private int drainTanks(int amount, int total) {
+        int remaining = amount;
+        if (amount <= 0) return 0;
+
+        if (Config.PROPORTIONAL_STORAGE_DRAIN && total > 0) {
+            for (int i = 0; i < tanks.length; i++) {
+                int share = (int) ((long) amount * tanks[i].getPortalFluid() / total);
+                if (share > 0) {
+                    int taken = tanks[i].consumePortalFluid(share);
+                    fluidTaken[i] += taken;
+                    remaining -= taken;
+                }
+            }
+        }
+        for (int i = 0; i < tanks.length && remaining > 0; i++) {
+            int taken = tanks[i].consumePortalFluid(remaining);
+            fluidTaken[i] += taken;
+            remaining -= taken;
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,102 @@
+package portal_multiblock;
+
+import advanced_portals.Config;
+import advanced_portals.Logger;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+
+/**
+ * Coalesces structure revalidation. Edits only mark a portal dirty; the set is drained
+ * once at the end of the server tick, so a bulk edit or a world load validates each
+ * structure once instead of once per block. Validity changes are published to listeners.
+ */
+@Mod.EventBusSubscriber(modid = "advanced_portals", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class PortalRevalidationQueue {
+    private static final Set<PortalStructure> dirtyPortals = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static final ArrayDeque<PortalStructure> drainOrder = new ArrayDeque<>();
+    private static final List<PortalValidityListener> listeners = new ArrayList<>();
+
+    @FunctionalInterface
+    public interface PortalValidityListener {
+        void onValidityChanged(PortalStructure portal, boolean valid);
+    }
+
+    static {
+        // An open portal whose frame stops being valid closes straight away
+        addListener((portal, valid) -> {
+            if (!valid) {
+                portal.setActive(false);
+            }
+        });
+    }
+
+    public static void addListener(PortalValidityListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(PortalValidityListener listener) {
+        listeners.remove(listener);
+    }
+
+    public static void enqueue(PortalStructure portal) {
+        if (dirtyPortals.add(portal)) {
+            drainOrder.addLast(portal);
+        }
+    }
+
+    public static boolean isPending(PortalStructure portal) {
+        return dirtyPortals.contains(portal);
+    }
+
+    // Validates a pending portal now, for callers that need an up to date answer this tick
+    public static void flush(PortalStructure portal) {
+        if (dirtyPortals.remove(portal)) {
+            drainOrder.remove(portal);
+            revalidate(portal);
+        }
+    }
+
+    static void notifyValidityChanged(PortalStructure portal, boolean valid) {
+        for (PortalValidityListener listener : new ArrayList<>(listeners)) {
+            listener.onValidityChanged(portal, valid);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || drainOrder.isEmpty()) return;
+
+        // 0 means no budget - drain everything this tick
+        long budgetNanos = Config.REVALIDATION_BUDGET_MICROS * 1000L;
+        long start = System.nanoTime();
+        int processed = 0;
+
+        while (!drainOrder.isEmpty()) {
+            if (budgetNanos > 0 && processed > 0 && System.nanoTime() - start >= budgetNanos) {
+                Logger.sendMessage("Revalidation budget used, deferring " + drainOrder.size() + " portal structures to next tick", true);
+                break;
+            }
+
+            PortalStructure portal = drainOrder.pollFirst();
+            dirtyPortals.remove(portal);
+            revalidate(portal);
+            processed++;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        dirtyPortals.clear();
+        drainOrder.clear();
+    }
+
+    private static void revalidate(PortalStructure portal) {
+        // Structures that were destroyed or merged away since they were queued are skipped
+        if (PortalMultiblockManager.getPortalStructure(portal.getPortalId()) != portal) return;
+        portal.revalidateStructure();
+    }
+}
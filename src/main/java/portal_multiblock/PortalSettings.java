@@ -100,9 +100,14 @@ public class PortalSettings {
     public void setActivationTime(long time) { this.activationTime = time; }
     public long getActivationTime() { return activationTime; }
 
-    public boolean isDurationExpired(long currentTime) {
+    // Both values are ticks from PortalManager's clock
+    public boolean isDurationExpired(long currentTick) {
         if (openDuration == PortalOpenDuration.PERSISTENT) return false;
-        return currentTime - activationTime >= openDuration.getTicks();
+        if (activationTime > currentTick) {
+            // Saved as a wall-clock timestamp by older versions - start counting from now
+            activationTime = currentTick;
+        }
+        return currentTick - activationTime >= openDuration.getTicks();
     }
 
     public CompoundTag save() {
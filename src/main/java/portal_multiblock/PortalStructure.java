@@ -26,8 +26,9 @@ public class PortalStructure {
     private final UUID portalId;
     public final PortalSettings settings;
     private final Set<PortalControllerBlockEntity> portalControllers;
-    private final Set<BlockPos> frameBlocks;
-    private final Set<BlockPos> interiorBlocks;
+    private final BlockPosSet frameBlocks;
+    private final FrameGeometry frameGeometry;
+    private final InteriorBlockSet interiorBlocks;
 
     // Primary storage system
     private BlockPos primaryStoragePos;
@@ -46,6 +47,39 @@ public class PortalStructure {
     // Portal bounds for entity detection
     private PortalBounds bounds;
 
+    // Derived from the frame bounding box, rebuilt only when frameGeometry reports a new box
+    private PortalBounds cachedFrameBounds;
+    private PortalDimensions cachedDimensions;
+    private int cachedBoundsVersion = -1;
+    private int cachedDimensionsVersion = -1;
+
+    // Batteries and tanks reachable through connected cables/pipes, resolved again only when this
+    // portal's wiring or a network it routes through changes, so the per-tick resource path only walks these arrays
+    private static final BatteryMultiblock[] NO_BATTERIES = new BatteryMultiblock[0];
+    private static final TankMultiblock[] NO_TANKS = new TankMultiblock[0];
+    private BatteryMultiblock[] connectedBatteries = NO_BATTERIES;
+    private TankMultiblock[] connectedTanks = NO_TANKS;
+    private boolean storageGraphStale = true;
+    // A capacity moved since the arrays were sorted into drain order
+    private boolean storageOrderStale;
+    // Network IDs the last resolution went through, registered with the manager
+    private final List<UUID> storageDependencies = new ArrayList<>();
+
+    // Storage totals, rebuilt with the arrays and kept current in between by
+    // capacity/energy/fluid deltas pushed from the batteries and tanks
+    private boolean aggregatesStale = true;
+    private int cachedPower;
+    private int cachedMaxPower;
+    private int cachedFluid;
+    private int cachedMaxFluid;
+
+    // Reused for every cost this portal pays, so maintenance and teleports don't allocate
+    private final PortalResourceTransaction resourceTransaction = new PortalResourceTransaction(this);
+
+    // Maintenance power owed since the last settle, paid in one transaction by PortalManager
+    private int maintenanceDebt;
+    private int ticksSinceMaintenanceSettle;
+
     // Track if we need to save data (for primary storage block)
     private boolean needsSave;
 
@@ -53,8 +87,9 @@ public class PortalStructure {
         this.portalId = portalId;
         this.settings = new PortalSettings();
         this.settings.setPortalName("Portal_" + portalId.toString().substring(0, 8));
-        this.frameBlocks = new HashSet<>();
-        this.interiorBlocks = new HashSet<>();
+        this.frameBlocks = new BlockPosSet();
+        this.frameGeometry = new FrameGeometry();
+        this.interiorBlocks = new InteriorBlockSet();
         this.connectedPowerCableMultiblocksMap = new HashMap<>();
         this.connectedFluidPipeMultiblocksMap = new HashMap<>();
 
@@ -258,7 +293,10 @@ public class PortalStructure {
                         posTag.getInt("y"),
                         posTag.getInt("z")
                 );
-                frameBlocks.add(pos);
+                if (frameBlocks.add(pos)) {
+                    frameGeometry.add(pos);
+                }
+                PortalMultiblockManager.indexPortalBlock(level, pos, this);
             }
         }
 
@@ -313,6 +351,11 @@ public class PortalStructure {
             }
         }
 
+        invalidateStorage();
+
+        // Interior and bounds aren't saved - validate once the rest of the world has loaded
+        requestRevalidation();
+
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
                 " loaded from NBT", true);
     }
@@ -374,8 +417,8 @@ public class PortalStructure {
                 Logger.sendMessage("New PortalStructure " + portalStructure.portalId.toString().substring(0, 8) +
                         " created with 1 portal block at " + pos, true);
 
-                // VALIDATION: Run validation after creating new structure
-                portalStructure.revalidateStructure();
+                // VALIDATION: Queue validation after creating new structure
+                portalStructure.requestRevalidation();
                 return portalStructure;
             }
             if(multiblocksToMerge.size() == 1) {
@@ -390,8 +433,8 @@ public class PortalStructure {
                 Logger.sendMessage("PortalStructure " + multiblock.portalId.toString().substring(0, 8) +
                         " added portal block at " + pos + " (total: " + multiblock.frameBlocks.size() + " frame blocks)", true);
 
-                // VALIDATION: Run validation after adding block to existing structure
-                multiblock.revalidateStructure();
+                // VALIDATION: Queue validation after adding block to existing structure
+                multiblock.requestRevalidation();
                 return multiblock;
             }
             if(multiblocksToMerge.size() > 1) {
@@ -406,8 +449,8 @@ public class PortalStructure {
                 Logger.sendMessage("Merged " + multiblocksToMerge.size() + " PortalStructures into " + multiblock.portalId.toString().substring(0, 8) +
                         " and added portal block at " + pos + " (total: " + multiblock.frameBlocks.size() + " frame blocks)", true);
 
-                // VALIDATION: Run validation after merge completes
-                multiblock.revalidateStructure();
+                // VALIDATION: Queue validation after merge completes
+                multiblock.requestRevalidation();
                 return multiblock;
             }
         }
@@ -422,8 +465,8 @@ public class PortalStructure {
                 Logger.sendMessage("New PortalStructure " + portalStructure.portalId.toString().substring(0, 8) +
                         " created with controller at " + pos, true);
 
-                // VALIDATION: Run validation after creating new structure with controller
-                portalStructure.revalidateStructure();
+                // VALIDATION: Queue validation after creating new structure with controller
+                portalStructure.requestRevalidation();
                 return portalStructure;
             }
             if(multiblocksToMerge.size() == 1) {
@@ -433,8 +476,8 @@ public class PortalStructure {
                 Logger.sendMessage("PortalStructure " + multiblock.portalId.toString().substring(0, 8) +
                         " added controller at " + pos + " (total: " + multiblock.portalControllers.size() + " controllers)", true);
 
-                // VALIDATION: Run validation after adding controller
-                multiblock.revalidateStructure();
+                // VALIDATION: Queue validation after adding controller
+                multiblock.requestRevalidation();
                 return multiblock;
             }
             if(multiblocksToMerge.size() > 1) {
@@ -444,8 +487,8 @@ public class PortalStructure {
                 Logger.sendMessage("Merged " + multiblocksToMerge.size() + " PortalStructures into " + multiblock.portalId.toString().substring(0, 8) +
                         " and added controller at " + pos + " (total: " + multiblock.portalControllers.size() + " controllers)", true);
 
-                // VALIDATION: Run validation after merge completes
-                multiblock.revalidateStructure();
+                // VALIDATION: Queue validation after merge completes
+                multiblock.requestRevalidation();
                 return multiblock;
             }
         }
@@ -467,7 +510,10 @@ public class PortalStructure {
 
     // Updated addPortalBlock method with primary storage logic
     public void addPortalBlock(BlockPos pos) {
-        frameBlocks.add(pos);
+        if (frameBlocks.add(pos)) {
+            frameGeometry.add(pos);
+        }
+        PortalMultiblockManager.indexPortalBlock(level, pos, this);
 
         // FIRST BLOCK BECOMES PRIMARY STORAGE
         if (primaryStoragePos == null && frameBlocks.size() == 1) {
@@ -480,7 +526,7 @@ public class PortalStructure {
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
                 " added portal block at " + pos + " (total: " + frameBlocks.size() + " frame blocks)", true);
 
-        revalidateStructure();
+        requestRevalidation();
     }
 
     // Updated addPortalControllerBlock method with primary storage logic
@@ -496,7 +542,7 @@ public class PortalStructure {
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
                 " added controller at " + controller.getBlockPos() + " (total: " + portalControllers.size() + " controllers)", true);
 
-        revalidateStructure();
+        requestRevalidation();
     }
 
     private void addPortalControllerBlocks(Set<PortalControllerBlockEntity> portalControllers) {
@@ -504,10 +550,16 @@ public class PortalStructure {
     }
 
     private void addPortalBlocks(Set<BlockPos> frameBlocks) {
-        this.frameBlocks.addAll(frameBlocks);
+        for (BlockPos pos : frameBlocks) {
+            if (this.frameBlocks.add(pos)) {
+                frameGeometry.add(pos);
+            }
+            PortalMultiblockManager.indexPortalBlock(level, pos, this);
+        }
     }
 
     private void addPowerCableMultiblocks(Map<UUID, Set<BlockPos>> powerCablesMap) {
+        invalidateStorage();
         for (Map.Entry<UUID, Set<BlockPos>> entry : powerCablesMap.entrySet()) {
             UUID cableId = entry.getKey();
             Set<BlockPos> connectionPoints = entry.getValue();
@@ -520,6 +572,7 @@ public class PortalStructure {
     }
 
     private void addFluidPipeMultiblocks(Map<UUID, Set<BlockPos>> fluidPipesMap) {
+        invalidateStorage();
         for (Map.Entry<UUID, Set<BlockPos>> entry : fluidPipesMap.entrySet()) {
             UUID pipeId = entry.getKey();
             Set<BlockPos> connectionPoints = entry.getValue();
@@ -536,6 +589,8 @@ public class PortalStructure {
         boolean wasPrimary = isPrimaryStorage(pos, level.getBlockEntity(pos));
 
         if (frameBlocks.remove(pos)) {
+            frameGeometry.remove(pos);
+            PortalMultiblockManager.unindexPortalBlock(level, pos, this);
             Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
                     " removed portal block at " + pos + " (total: " + frameBlocks.size() + " frame blocks remaining)", true);
 
@@ -552,8 +607,8 @@ public class PortalStructure {
             } else {
                 // CRITICAL: Check if removal caused structure to split
                 handleSplitAfterRemoval();
-                // VALIDATION: Run validation after block removal
-                revalidateStructure();
+                // VALIDATION: Queue validation after block removal
+                requestRevalidation();
             }
         }
     }
@@ -573,8 +628,8 @@ public class PortalStructure {
                 transferPrimaryStorage();
             }
 
-            // VALIDATION: Run validation after controller removal
-            revalidateStructure();
+            // VALIDATION: Queue validation after controller removal
+            requestRevalidation();
         }
     }
 
@@ -585,7 +640,9 @@ public class PortalStructure {
             return null;
         }
 
-        PortalStructure mainStructureMultiblock = multiblocksToMerge.iterator().next();
+        // Union by size: the largest structure survives, so only the smaller ones get moved
+        PortalStructure mainStructureMultiblock = Collections.max(multiblocksToMerge,
+                Comparator.comparingInt(structure -> structure.frameBlocks.size() + structure.portalControllers.size()));
         UUID mainId = mainStructureMultiblock.portalId;
 
         Logger.sendMessage("Merging " + multiblocksToMerge.size() + " PortalStructures into " + mainId.toString().substring(0, 8), true);
@@ -595,7 +652,7 @@ public class PortalStructure {
         int totalPowerCablesBefore = mainStructureMultiblock.connectedPowerCableMultiblocksMap.size();
         int totalFluidPipesBefore = mainStructureMultiblock.connectedFluidPipeMultiblocksMap.size();
 
-        Set<BlockPos> allFrameBlocksToUpdate = new HashSet<>();
+        Set<BlockPos> allFrameBlocksToUpdate = new BlockPosSet();
         Set<PortalControllerBlockEntity> allControllersToUpdate = new HashSet<>();
 
         for (PortalStructure portalStructure : multiblocksToMerge) {
@@ -669,7 +726,7 @@ public class PortalStructure {
                 " checking for split", true);
 
         // Find all connected components in the frame
-        List<Set<BlockPos>> disconnectedComponents = findDisconnectedComponents();
+        List<BlockPosSet> disconnectedComponents = ConnectedComponents.label(frameBlocks);
 
         if (disconnectedComponents.size() <= 1) {
             // Still one connected component, no split occurred
@@ -684,39 +741,8 @@ public class PortalStructure {
         splitIntoComponents(disconnectedComponents);
     }
 
-    // Find disconnected components using flood fill
-    private List<Set<BlockPos>> findDisconnectedComponents() {
-        Set<BlockPos> visited = new HashSet<>();
-        List<Set<BlockPos>> components = new ArrayList<>();
-
-        for (BlockPos startPos : frameBlocks) {
-            if (!visited.contains(startPos)) {
-                Set<BlockPos> component = new HashSet<>();
-                floodFill(startPos, component, visited);
-                components.add(component);
-            }
-        }
-
-        return components;
-    }
-
-    // Flood fill algorithm for finding connected components
-    private void floodFill(BlockPos start, Set<BlockPos> component, Set<BlockPos> visited) {
-        if (visited.contains(start)) return;
-        visited.add(start);
-        component.add(start);
-
-        // Check ALL 6 directions for 3D connectivity
-        for (Direction direction : Direction.values()) {
-            BlockPos neighbor = start.relative(direction);
-            if (frameBlocks.contains(neighbor)) {
-                floodFill(neighbor, component, visited);
-            }
-        }
-    }
-
     // Split the portal structure into multiple components (similar to TankMultiblock)
-    private void splitIntoComponents(List<Set<BlockPos>> components) {
+    private void splitIntoComponents(List<BlockPosSet> components) {
         // Store the original portal ID
         UUID originalPortalId = this.portalId;
 
@@ -726,6 +752,7 @@ public class PortalStructure {
         // Clear and reset the original portal structure with main component
         this.frameBlocks.clear();
         this.frameBlocks.addAll(mainComponent);
+        frameGeometry.reset(mainComponent);
 
         // Reassign controllers based on proximity
         reassignControllers(mainComponent);
@@ -745,8 +772,8 @@ public class PortalStructure {
             createNewPortalStructureForComponent(component, originalPortalId);
         }
 
-        // Revalidate the main structure
-        revalidateStructure();
+        // Queue revalidation of the main structure
+        requestRevalidation();
     }
 
     // Reassign controllers based on proximity to component
@@ -792,6 +819,7 @@ public class PortalStructure {
 
     // Helper method to update connection map
     private void updateConnectionMap(Set<BlockPos> component, Map<UUID, Set<BlockPos>> connectionMap, boolean isPowerCable) {
+        invalidateStorage();
         for (Map.Entry<UUID, Set<BlockPos>> entry : new HashMap<>(connectionMap).entrySet()) {
             UUID multiblockId = entry.getKey();
             Set<BlockPos> connectionPoints = entry.getValue();
@@ -905,8 +933,8 @@ public class PortalStructure {
             }
         }
 
-        // Validate the new structure
-        newStructure.revalidateStructure();
+        // Queue validation of the new structure
+        newStructure.requestRevalidation();
     }
 
     // Transfer controllers to new structure
@@ -974,6 +1002,7 @@ public class PortalStructure {
 
     // Internal method to add power cable connection (for transfer)
     private void addInternalPowerCableConnection(UUID cableId, BlockPos connectionPoint) {
+        invalidateStorage();
         if (!connectedPowerCableMultiblocksMap.containsKey(cableId)) {
             connectedPowerCableMultiblocksMap.put(cableId, new HashSet<>());
         }
@@ -982,6 +1011,7 @@ public class PortalStructure {
 
     // Internal method to add fluid pipe connection (for transfer)
     private void addInternalFluidPipeConnection(UUID pipeId, BlockPos connectionPoint) {
+        invalidateStorage();
         if (!connectedFluidPipeMultiblocksMap.containsKey(pipeId)) {
             connectedFluidPipeMultiblocksMap.put(pipeId, new HashSet<>());
         }
@@ -1020,21 +1050,42 @@ public class PortalStructure {
         }
     }
 
+    // VALIDATION: Marks the structure dirty; it is validated once at the end of the server tick
+    public void requestRevalidation() {
+        PortalRevalidationQueue.enqueue(this);
+    }
+
+    // VALIDATION: Called by InteriorObstructionWatcher when a block lands in the opening
+    public void markInteriorObstructed(BlockPos pos) {
+        if (!isValid) return;
+
+        isValid = false;
+        bounds = null;
+        Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " INVALID: Interior obstructed at " + pos, true);
+
+        markForSave();
+        PortalRevalidationQueue.notifyValidityChanged(this, false);
+    }
+
     // VALIDATION: Enhanced validation with comprehensive logging
     public void revalidateStructure() {
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " revalidating structure...", true);
+        boolean wasValid = isValid;
 
         // Clear previous interior blocks
-        interiorBlocks.clear();
+        interiorBlocks.setRegion(null);
         isValid = false;
         bounds = null;
 
         // Run validation
         isValid = validatePortalStructure();
 
+        // Block changes inside the opening are tracked from here on, valid or not
+        InteriorObstructionWatcher.watch(this, InteriorRegion.fromFrame(frameGeometry));
+
         if (isValid) {
             calculateInteriorBlocks();
-            bounds = PortalBounds.calculateFromFrame(frameBlocks);
+            bounds = getFrameBounds();
 
             if (bounds == null) {
                 Logger.sendMessage("WARNING: Could not calculate portal bounds", true);
@@ -1052,6 +1103,10 @@ public class PortalStructure {
         }
 
         markForSave();
+
+        if (wasValid != isValid) {
+            PortalRevalidationQueue.notifyValidityChanged(this, isValid);
+        }
     }
 
     private boolean validatePortalStructure() {
@@ -1070,44 +1125,26 @@ public class PortalStructure {
         }
 
         // 3. SIMPLE CHECK: All blocks must form a vertical plane (same X or same Z)
-        Set<Integer> xValues = new HashSet<>();
-        Set<Integer> zValues = new HashSet<>();
-
-        for (BlockPos pos : frameBlocks) {
-            xValues.add(pos.getX());
-            zValues.add(pos.getZ());
-        }
-
-        // Must be either all same X (vertical plane on X) OR all same Z (vertical plane on Z)
-        boolean isXPlane = xValues.size() == 1;
-        boolean isZPlane = zValues.size() == 1;
-
-        if (!isXPlane && !isZPlane) {
-            Logger.sendMessage("VALIDATION FAILED: Frame blocks not in a vertical plane (X values: " + xValues.size() + ", Z values: " + zValues.size() + ")", true);
+        if (!frameGeometry.isVerticalPlane()) {
+            Logger.sendMessage("VALIDATION FAILED: Frame blocks not in a vertical plane", true);
             return false;
         }
 
         // Determine which axis is constant (the plane orientation)
-        boolean constantX = isXPlane;
-        int constantValue = isXPlane ? xValues.iterator().next() : zValues.iterator().next();
-        String planeType = isXPlane ? "X" : "Z";
+        boolean constantX = frameGeometry.isConstantX();
+        int constantValue = frameGeometry.getConstantValue();
+        String planeType = constantX ? "X" : "Z";
 
         Logger.sendMessage("VALIDATION: Frame is vertical plane on " + planeType + " = " + constantValue, true);
 
-        // 4. SIMPLE CHECK: Controller must be adjacent to at least one frame block
+        // 4. SIMPLE CHECK: Controller must be adjacent to at least one frame block (including diagonals)
         boolean controllerAdjacent = false;
         for (PortalControllerBlockEntity controller : portalControllers) {
-            BlockPos controllerPos = controller.getBlockPos();
-            for (BlockPos framePos : frameBlocks) {
-                // Check if controller is adjacent (including diagonals)
-                double distance = controllerPos.distToCenterSqr(framePos.getX() + 0.5, framePos.getY() + 0.5, framePos.getZ() + 0.5);
-                if (distance <= 2.0) {
-                    controllerAdjacent = true;
-                    Logger.sendMessage("VALIDATION: Controller at " + controllerPos + " is adjacent to frame block at " + framePos, true);
-                    break;
-                }
+            if (frameBlocks.containsNear(controller.getBlockPos(), 2)) {
+                controllerAdjacent = true;
+                Logger.sendMessage("VALIDATION: Controller at " + controller.getBlockPos() + " is adjacent to the frame", true);
+                break;
             }
-            if (controllerAdjacent) break;
         }
 
         if (!controllerAdjacent) {
@@ -1115,8 +1152,8 @@ public class PortalStructure {
             return false;
         }
 
-        // Now do corner-based validation (adjusted for vertical plane)
-        if (!validateRectangleFrame(constantX, constantValue)) {
+        // Now do rectangle validation (adjusted for vertical plane)
+        if (!validateRectangleFrame()) {
             Logger.sendMessage("VALIDATION FAILED: Frame structure invalid", true);
             return false;
         }
@@ -1131,482 +1168,51 @@ public class PortalStructure {
         return true;
     }
 
-    private boolean validateRectangleFrame(boolean constantX, int constantValue) {
+    // Rectangle check is arithmetic on the counters kept by frameGeometry - no walk over the frame
+    private boolean validateRectangleFrame() {
         Logger.sendMessage("FRAME VALIDATION: Checking vertical rectangle with " + frameBlocks.size() + " blocks", true);
 
-        Set<BlockPos> levelFrames = new HashSet<>(frameBlocks);
-
-        // Step 1: Find all corner candidates (blocks with neighbors in perpendicular directions)
-        Set<BlockPos> cornerCandidates = new HashSet<>();
-        for (BlockPos pos : levelFrames) {
-            if (isCornerCandidate(pos, levelFrames, constantX)) {
-                cornerCandidates.add(pos);
-            }
-        }
-
-        Logger.sendMessage("FRAME VALIDATION: Found " + cornerCandidates.size() + " corner candidates", true);
-
-        // Step 2: Must have exactly 4 corners
-        if (cornerCandidates.size() != 4) {
-            Logger.sendMessage("FRAME VALIDATION FAILED: Expected 4 corners, found " + cornerCandidates.size(), true);
-            return false;
-        }
-
-        // Step 3: Identify the corners
-        Map<String, BlockPos> corners = identifyCorners(cornerCandidates, constantX);
-        if (corners.size() != 4) {
-            Logger.sendMessage("FRAME VALIDATION FAILED: Could not identify 4 distinct corners", true);
+        if (!frameGeometry.isHollowRectangle()) {
+            Logger.sendMessage("FRAME VALIDATION FAILED: Frame is not a complete rectangle outline", true);
             return false;
         }
 
-        // Step 4: Trace edges and validate rectangle
-        boolean result = traceAndValidateRectangle(corners, levelFrames, constantX, constantValue);
-
-        if (result) {
-            Logger.sendMessage("FRAME VALIDATION PASSED: Complete vertical rectangle structure", true);
-
-            // Calculate interior dimensions
-            BlockPos topLeft = corners.get("topLeft");
-            BlockPos bottomRight = corners.get("bottomRight");
-
-            int interiorWidth, interiorHeight;
-            if (constantX) {
-                // X-plane: interior dimensions are in Z (width) and Y (height)
-                interiorWidth = Math.abs(bottomRight.getZ() - topLeft.getZ()) - 1;
-                interiorHeight = Math.abs(bottomRight.getY() - topLeft.getY()) - 1;
-            } else {
-                // Z-plane: interior dimensions are in X (width) and Y (height)
-                interiorWidth = Math.abs(bottomRight.getX() - topLeft.getX()) - 1;
-                interiorHeight = Math.abs(bottomRight.getY() - topLeft.getY()) - 1;
-            }
-
-            // Check interior is at least 1x2 for player (width x height)
-            if (interiorWidth < 1 || interiorHeight < 2) {
-                Logger.sendMessage("FRAME VALIDATION FAILED: Interior too small " + interiorWidth + "x" + interiorHeight + " - needs min 1x2 for player", true);
-                return false;
-            }
-
-            Logger.sendMessage("FRAME VALIDATION: Interior dimensions " + interiorWidth + "x" + interiorHeight, true);
-        } else {
-            Logger.sendMessage("FRAME VALIDATION FAILED: Invalid rectangle structure", true);
-        }
-
-        return result;
-    }
-
-    // Helper method to check if a block is a corner candidate in vertical plane
-    private boolean isCornerCandidate(BlockPos pos, Set<BlockPos> frameBlocks, boolean constantX) {
-        // For vertical plane, we need to check neighbors differently
-        // If constantX, we check Y and Z neighbors
-        // If constantZ, we check X and Y neighbors
-
-        boolean hasNeighbor1 = false;
-        boolean hasNeighbor2 = false;
-        boolean hasNeighbor3 = false;
-        boolean hasNeighbor4 = false;
-
-        if (constantX) {
-            // X-plane: check neighbors in Y and Z directions
-            hasNeighbor1 = frameBlocks.contains(pos.above());    // +Y
-            hasNeighbor2 = frameBlocks.contains(pos.below());    // -Y
-            hasNeighbor3 = frameBlocks.contains(pos.north());    // +Z
-            hasNeighbor4 = frameBlocks.contains(pos.south());    // -Z
-        } else {
-            // Z-plane: check neighbors in X and Y directions
-            hasNeighbor1 = frameBlocks.contains(pos.above());    // +Y
-            hasNeighbor2 = frameBlocks.contains(pos.below());    // -Y
-            hasNeighbor3 = frameBlocks.contains(pos.east());     // +X
-            hasNeighbor4 = frameBlocks.contains(pos.west());     // -X
-        }
-
-        // Count how many directions have neighbors
-        int neighborCount = 0;
-        if (hasNeighbor1) neighborCount++;
-        if (hasNeighbor2) neighborCount++;
-        if (hasNeighbor3) neighborCount++;
-        if (hasNeighbor4) neighborCount++;
-
-        // Must have exactly 2 neighbors (for a corner in a rectangle)
-        if (neighborCount != 2) {
-            return false;
-        }
-
-        // Must not have both neighbors on same axis
-        // For X-plane: can't have both up/down AND both north/south
-        // For Z-plane: can't have both up/down AND both east/west
-        if ((hasNeighbor1 && hasNeighbor2) || (hasNeighbor3 && hasNeighbor4)) {
-            return false;
-        }
-
-        // Must have one vertical neighbor (Y) and one horizontal neighbor (X or Z)
-        boolean hasVertical = hasNeighbor1 || hasNeighbor2;
-        boolean hasHorizontal = hasNeighbor3 || hasNeighbor4;
-
-        return hasVertical && hasHorizontal;
-    }
-
-    // Identify corners in vertical plane
-    private Map<String, BlockPos> identifyCorners(Set<BlockPos> cornerCandidates, boolean constantX) {
-        Map<String, BlockPos> corners = new HashMap<>();
-
-        // Find min and max coordinates
-        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
-        int minOther = Integer.MAX_VALUE, maxOther = Integer.MIN_VALUE;
-
-        for (BlockPos pos : cornerCandidates) {
-            minY = Math.min(minY, pos.getY());
-            maxY = Math.max(maxY, pos.getY());
-
-            if (constantX) {
-                // X-plane: use Z coordinate
-                int z = pos.getZ();
-                minOther = Math.min(minOther, z);
-                maxOther = Math.max(maxOther, z);
-            } else {
-                // Z-plane: use X coordinate
-                int x = pos.getX();
-                minOther = Math.min(minOther, x);
-                maxOther = Math.max(maxOther, x);
-            }
-        }
-
-        // Assign corners based on coordinates
-        // "top" means higher Y, "bottom" means lower Y
-        for (BlockPos pos : cornerCandidates) {
-            if (pos.getY() == maxY) {
-                // Top row
-                if (constantX) {
-                    if (pos.getZ() == minOther) {
-                        corners.put("topLeft", pos);      // Top-left: max Y, min Z
-                    } else if (pos.getZ() == maxOther) {
-                        corners.put("topRight", pos);     // Top-right: max Y, max Z
-                    }
-                } else {
-                    if (pos.getX() == minOther) {
-                        corners.put("topLeft", pos);      // Top-left: max Y, min X
-                    } else if (pos.getX() == maxOther) {
-                        corners.put("topRight", pos);     // Top-right: max Y, max X
-                    }
-                }
-            } else if (pos.getY() == minY) {
-                // Bottom row
-                if (constantX) {
-                    if (pos.getZ() == minOther) {
-                        corners.put("bottomLeft", pos);   // Bottom-left: min Y, min Z
-                    } else if (pos.getZ() == maxOther) {
-                        corners.put("bottomRight", pos);  // Bottom-right: min Y, max Z
-                    }
-                } else {
-                    if (pos.getX() == minOther) {
-                        corners.put("bottomLeft", pos);   // Bottom-left: min Y, min X
-                    } else if (pos.getX() == maxOther) {
-                        corners.put("bottomRight", pos);  // Bottom-right: min Y, max X
-                    }
-                }
-            }
-        }
+        int interiorWidth = frameGeometry.getInteriorWidth();
+        int interiorHeight = frameGeometry.getInteriorHeight();
 
-        return corners;
-    }
-
-    // Trace edges and validate the vertical rectangle
-    private boolean traceAndValidateRectangle(Map<String, BlockPos> corners, Set<BlockPos> frameBlocks,
-                                              boolean constantX, int constantValue) {
-        BlockPos topLeft = corners.get("topLeft");
-        BlockPos topRight = corners.get("topRight");
-        BlockPos bottomLeft = corners.get("bottomLeft");
-        BlockPos bottomRight = corners.get("bottomRight");
-
-        if (topLeft == null || topRight == null || bottomLeft == null || bottomRight == null) {
+        // Check interior is at least 1x2 for player (width x height)
+        if (interiorWidth < 1 || interiorHeight < 2) {
+            Logger.sendMessage("FRAME VALIDATION FAILED: Interior too small " + interiorWidth + "x" + interiorHeight + " - needs min 1x2 for player", true);
             return false;
         }
 
-        if (constantX) {
-            // X-plane: Trace edges in Y and Z directions
-            int x = constantValue;
-
-            // Trace top edge (from topLeft to topRight) - constant Y = maxY, varying Z
-            int topY = topLeft.getY();
-            for (int z = Math.min(topLeft.getZ(), topRight.getZ());
-                 z <= Math.max(topLeft.getZ(), topRight.getZ()); z++) {
-                BlockPos pos = new BlockPos(x, topY, z);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at top edge " + pos, true);
-                    return false;
-                }
-            }
-
-            // Trace bottom edge (from bottomLeft to bottomRight) - constant Y = minY, varying Z
-            int bottomY = bottomLeft.getY();
-            for (int z = Math.min(bottomLeft.getZ(), bottomRight.getZ());
-                 z <= Math.max(bottomLeft.getZ(), bottomRight.getZ()); z++) {
-                BlockPos pos = new BlockPos(x, bottomY, z);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at bottom edge " + pos, true);
-                    return false;
-                }
-            }
-
-            // Trace left edge (from topLeft to bottomLeft) - constant Z = minZ, varying Y
-            int leftZ = Math.min(topLeft.getZ(), bottomLeft.getZ());
-            for (int y = Math.min(topLeft.getY(), bottomLeft.getY());
-                 y <= Math.max(topLeft.getY(), bottomLeft.getY()); y++) {
-                BlockPos pos = new BlockPos(x, y, leftZ);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at left edge " + pos, true);
-                    return false;
-                }
-            }
-
-            // Trace right edge (from topRight to bottomRight) - constant Z = maxZ, varying Y
-            int rightZ = Math.max(topRight.getZ(), bottomRight.getZ());
-            for (int y = Math.min(topRight.getY(), bottomRight.getY());
-                 y <= Math.max(topRight.getY(), bottomRight.getY()); y++) {
-                BlockPos pos = new BlockPos(x, y, rightZ);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at right edge " + pos, true);
-                    return false;
-                }
-            }
-        } else {
-            // Z-plane: Trace edges in X and Y directions
-            int z = constantValue;
-
-            // Trace top edge (from topLeft to topRight) - constant Y = maxY, varying X
-            int topY = topLeft.getY();
-            for (int x = Math.min(topLeft.getX(), topRight.getX());
-                 x <= Math.max(topLeft.getX(), topRight.getX()); x++) {
-                BlockPos pos = new BlockPos(x, topY, z);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at top edge " + pos, true);
-                    return false;
-                }
-            }
-
-            // Trace bottom edge (from bottomLeft to bottomRight) - constant Y = minY, varying X
-            int bottomY = bottomLeft.getY();
-            for (int x = Math.min(bottomLeft.getX(), bottomRight.getX());
-                 x <= Math.max(bottomLeft.getX(), bottomRight.getX()); x++) {
-                BlockPos pos = new BlockPos(x, bottomY, z);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at bottom edge " + pos, true);
-                    return false;
-                }
-            }
-
-            // Trace left edge (from topLeft to bottomLeft) - constant X = minX, varying Y
-            int leftX = Math.min(topLeft.getX(), bottomLeft.getX());
-            for (int y = Math.min(topLeft.getY(), bottomLeft.getY());
-                 y <= Math.max(topLeft.getY(), bottomLeft.getY()); y++) {
-                BlockPos pos = new BlockPos(leftX, y, z);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at left edge " + pos, true);
-                    return false;
-                }
-            }
-
-            // Trace right edge (from topRight to bottomRight) - constant X = maxX, varying Y
-            int rightX = Math.max(topRight.getX(), bottomRight.getX());
-            for (int y = Math.min(topRight.getY(), bottomRight.getY());
-                 y <= Math.max(topRight.getY(), bottomRight.getY()); y++) {
-                BlockPos pos = new BlockPos(rightX, y, z);
-                if (!frameBlocks.contains(pos)) {
-                    Logger.sendMessage("RECTANGLE TRACE FAILED: Missing frame block at right edge " + pos, true);
-                    return false;
-                }
-            }
-        }
-
-        // Verify no extra portal blocks outside the rectangle
-        for (BlockPos pos : frameBlocks) {
-            if (!isOnRectangleEdge(pos, corners, constantX, constantValue)) {
-                Logger.sendMessage("RECTANGLE VALIDATION FAILED: Extra portal block at " + pos + " not on frame edges", true);
-                return false;
-            }
-        }
-
         // Verify interior is empty (must be air)
-        if (!verifyInteriorIsEmpty(corners, constantX, constantValue)) {
+        if (!verifyInteriorIsEmpty()) {
             return false;
         }
 
+        Logger.sendMessage("FRAME VALIDATION PASSED: Complete vertical rectangle structure, interior " + interiorWidth + "x" + interiorHeight, true);
         return true;
     }
 
-    // Check if a position is on the rectangle edge
-    private boolean isOnRectangleEdge(BlockPos pos, Map<String, BlockPos> corners, boolean constantX, int constantValue) {
-        BlockPos topLeft = corners.get("topLeft");
-        BlockPos topRight = corners.get("topRight");
-        BlockPos bottomLeft = corners.get("bottomLeft");
-        BlockPos bottomRight = corners.get("bottomRight");
-
-        if (constantX) {
-            // X-plane
-            if (pos.getX() != constantValue) return false;
-
-            boolean onTopEdge = pos.getY() == topLeft.getY() &&
-                    pos.getZ() >= Math.min(topLeft.getZ(), topRight.getZ()) &&
-                    pos.getZ() <= Math.max(topLeft.getZ(), topRight.getZ());
-            boolean onBottomEdge = pos.getY() == bottomLeft.getY() &&
-                    pos.getZ() >= Math.min(bottomLeft.getZ(), bottomRight.getZ()) &&
-                    pos.getZ() <= Math.max(bottomLeft.getZ(), bottomRight.getZ());
-            boolean onLeftEdge = pos.getZ() == Math.min(topLeft.getZ(), bottomLeft.getZ()) &&
-                    pos.getY() >= Math.min(topLeft.getY(), bottomLeft.getY()) &&
-                    pos.getY() <= Math.max(topLeft.getY(), bottomLeft.getY());
-            boolean onRightEdge = pos.getZ() == Math.max(topRight.getZ(), bottomRight.getZ()) &&
-                    pos.getY() >= Math.min(topRight.getY(), bottomRight.getY()) &&
-                    pos.getY() <= Math.max(topRight.getY(), bottomRight.getY());
-
-            return onTopEdge || onBottomEdge || onLeftEdge || onRightEdge;
-        } else {
-            // Z-plane
-            if (pos.getZ() != constantValue) return false;
-
-            boolean onTopEdge = pos.getY() == topLeft.getY() &&
-                    pos.getX() >= Math.min(topLeft.getX(), topRight.getX()) &&
-                    pos.getX() <= Math.max(topLeft.getX(), topRight.getX());
-            boolean onBottomEdge = pos.getY() == bottomLeft.getY() &&
-                    pos.getX() >= Math.min(bottomLeft.getX(), bottomRight.getX()) &&
-                    pos.getX() <= Math.max(bottomLeft.getX(), bottomRight.getX());
-            boolean onLeftEdge = pos.getX() == Math.min(topLeft.getX(), bottomLeft.getX()) &&
-                    pos.getY() >= Math.min(topLeft.getY(), bottomLeft.getY()) &&
-                    pos.getY() <= Math.max(topLeft.getY(), bottomLeft.getY());
-            boolean onRightEdge = pos.getX() == Math.max(topRight.getX(), bottomRight.getX()) &&
-                    pos.getY() >= Math.min(topRight.getY(), bottomRight.getY()) &&
-                    pos.getY() <= Math.max(topRight.getY(), bottomRight.getY());
-
-            return onTopEdge || onBottomEdge || onLeftEdge || onRightEdge;
-        }
-    }
-
-    // Verify interior blocks are air (adjusted for vertical plane)
-    private boolean verifyInteriorIsEmpty(Map<String, BlockPos> corners, boolean constantX, int constantValue) {
-        BlockPos topLeft = corners.get("topLeft");
-        BlockPos bottomRight = corners.get("bottomRight");
-
-        if (constantX) {
-            // X-plane: interior is in Y (vertical) and Z (horizontal)
-            int x = constantValue;
-            int minY = Math.min(topLeft.getY(), bottomRight.getY());
-            int maxY = Math.max(topLeft.getY(), bottomRight.getY());
-            int minZ = Math.min(topLeft.getZ(), bottomRight.getZ());
-            int maxZ = Math.max(topLeft.getZ(), bottomRight.getZ());
-
-            // Scan interior area (skip the edges)
-            for (int y = minY + 1; y < maxY; y++) {
-                for (int z = minZ + 1; z < maxZ; z++) {
-                    BlockPos pos = new BlockPos(x, y, z);
-
-                    // Check if block is a portal block (shouldn't be in interior)
-                    if (frameBlocks.contains(pos)) {
-                        Logger.sendMessage("INTERIOR VALIDATION FAILED: Portal block found in interior at " + pos, true);
-                        return false;
-                    }
+    // Verify interior blocks are air, scanning one chunk section at a time
+    // A frame that passed isHollowRectangle has no blocks inside its outline, so only the world is checked
+    private boolean verifyInteriorIsEmpty() {
+        InteriorRegion region = InteriorRegion.fromFrame(frameGeometry);
+        if (region == null) return false;
 
-                    // Check if block is air
-                    if (!level.isEmptyBlock(pos)) {
-                        Logger.sendMessage("INTERIOR VALIDATION FAILED: Non-air block found in interior at " + pos, true);
-                        return false;
-                    }
-                }
-            }
-        } else {
-            // Z-plane: interior is in Y (vertical) and X (horizontal)
-            int z = constantValue;
-            int minY = Math.min(topLeft.getY(), bottomRight.getY());
-            int maxY = Math.max(topLeft.getY(), bottomRight.getY());
-            int minX = Math.min(topLeft.getX(), bottomRight.getX());
-            int maxX = Math.max(topLeft.getX(), bottomRight.getX());
-
-            // Scan interior area (skip the edges)
-            for (int y = minY + 1; y < maxY; y++) {
-                for (int x = minX + 1; x < maxX; x++) {
-                    BlockPos pos = new BlockPos(x, y, z);
-
-                    // Check if block is a portal block (shouldn't be in interior)
-                    if (frameBlocks.contains(pos)) {
-                        Logger.sendMessage("INTERIOR VALIDATION FAILED: Portal block found in interior at " + pos, true);
-                        return false;
-                    }
-
-                    // Check if block is air
-                    if (!level.isEmptyBlock(pos)) {
-                        Logger.sendMessage("INTERIOR VALIDATION FAILED: Non-air block found in interior at " + pos, true);
-                        return false;
-                    }
-                }
-            }
+        BlockPos obstruction = InteriorScanner.findObstruction(level, region);
+        if (obstruction != null) {
+            Logger.sendMessage("INTERIOR VALIDATION FAILED: Non-air block found in interior at " + obstruction, true);
+            return false;
         }
 
         return true;
     }
 
+    // Interior is kept as a plane plus rectangle, not one BlockPos per cell
     private void calculateInteriorBlocks() {
-        interiorBlocks.clear();
-
-        if (frameBlocks.isEmpty()) return;
-
-        // First we need to determine if the structure is valid and get plane orientation
-        Set<Integer> xValues = new HashSet<>();
-        Set<Integer> zValues = new HashSet<>();
-
-        for (BlockPos pos : frameBlocks) {
-            xValues.add(pos.getX());
-            zValues.add(pos.getZ());
-        }
-
-        boolean constantX = xValues.size() == 1;
-        if (!constantX && zValues.size() != 1) {
-            // Not a valid vertical plane
-            return;
-        }
-
-        int constantValue = constantX ? xValues.iterator().next() : zValues.iterator().next();
-
-        // Get corners
-        Set<BlockPos> cornerCandidates = new HashSet<>();
-        for (BlockPos pos : frameBlocks) {
-            if (isCornerCandidate(pos, frameBlocks, constantX)) {
-                cornerCandidates.add(pos);
-            }
-        }
-
-        if (cornerCandidates.size() != 4) return;
-
-        Map<String, BlockPos> corners = identifyCorners(cornerCandidates, constantX);
-        if (corners.size() != 4) return;
-
-        BlockPos topLeft = corners.get("topLeft");
-        BlockPos bottomRight = corners.get("bottomRight");
-
-        // Add all interior positions
-        if (constantX) {
-            // X-plane
-            int x = constantValue;
-            int minY = Math.min(topLeft.getY(), bottomRight.getY());
-            int maxY = Math.max(topLeft.getY(), bottomRight.getY());
-            int minZ = Math.min(topLeft.getZ(), bottomRight.getZ());
-            int maxZ = Math.max(topLeft.getZ(), bottomRight.getZ());
-
-            for (int y = minY + 1; y < maxY; y++) {
-                for (int z = minZ + 1; z < maxZ; z++) {
-                    interiorBlocks.add(new BlockPos(x, y, z));
-                }
-            }
-        } else {
-            // Z-plane
-            int z = constantValue;
-            int minY = Math.min(topLeft.getY(), bottomRight.getY());
-            int maxY = Math.max(topLeft.getY(), bottomRight.getY());
-            int minX = Math.min(topLeft.getX(), bottomRight.getX());
-            int maxX = Math.max(topLeft.getX(), bottomRight.getX());
-
-            for (int y = minY + 1; y < maxY; y++) {
-                for (int x = minX + 1; x < maxX; x++) {
-                    interiorBlocks.add(new BlockPos(x, y, z));
-                }
-            }
-        }
+        interiorBlocks.setRegion(InteriorRegion.fromFrame(frameGeometry));
 
         Logger.sendMessage("INTERIOR: Calculated " + interiorBlocks.size() + " interior blocks", true);
     }
@@ -1624,6 +1230,7 @@ public class PortalStructure {
     }
 
     public void addPowerCableMultiblock(PowerCableMultiblock cableMultiblock) {
+        invalidateStorage();
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " addPowerCableMultiblock called for cable " + cableMultiblock.id.toString().substring(0, 8), true);
 
         UUID cableId = cableMultiblock.id;
@@ -1659,6 +1266,7 @@ public class PortalStructure {
     }
 
     public void removePowerCableMultiblock(PowerCableMultiblock cableMultiblock) {
+        invalidateStorage();
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " removePowerCableMultiblock called for cable " + cableMultiblock.id.toString().substring(0, 8), true);
 
         UUID cableId = cableMultiblock.id;
@@ -1681,6 +1289,7 @@ public class PortalStructure {
     }
 
     public void addFluidPipeMultiblock(FluidPipeMultiblock pipeMultiblock) {
+        invalidateStorage();
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " addFluidPipeMultiblock called for pipe " + pipeMultiblock.id.toString().substring(0, 8), true);
 
         UUID pipeId = pipeMultiblock.id;
@@ -1716,6 +1325,7 @@ public class PortalStructure {
     }
 
     public void removeFluidPipeMultiblock(FluidPipeMultiblock pipeMultiblock) {
+        invalidateStorage();
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " removeFluidPipeMultiblock called for pipe " + pipeMultiblock.id.toString().substring(0, 8), true);
 
         UUID pipeId = pipeMultiblock.id;
@@ -1737,6 +1347,36 @@ public class PortalStructure {
         markForSave();
     }
 
+    // NEW METHOD: A cable network split - move the connection points that now belong to the new network
+    public void reassignPowerCableConnectionPoints(UUID fromCableId, UUID toCableId, Set<BlockPos> cablePositions) {
+        reassignConnectionPoints(connectedPowerCableMultiblocksMap, fromCableId, toCableId, cablePositions);
+        Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " moved " + cablePositions.size() + " connection points from PowerCableMultiblock " + fromCableId.toString().substring(0, 8) + " to " + toCableId.toString().substring(0, 8), true);
+        markForSave();
+    }
+
+    // NEW METHOD: A pipe network split - move the connection points that now belong to the new network
+    public void reassignFluidPipeConnectionPoints(UUID fromPipeId, UUID toPipeId, Set<BlockPos> pipePositions) {
+        reassignConnectionPoints(connectedFluidPipeMultiblocksMap, fromPipeId, toPipeId, pipePositions);
+        Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) + " moved " + pipePositions.size() + " connection points from FluidPipeMultiblock " + fromPipeId.toString().substring(0, 8) + " to " + toPipeId.toString().substring(0, 8), true);
+        markForSave();
+    }
+
+    private void reassignConnectionPoints(Map<UUID, Set<BlockPos>> connectionMap, UUID fromId, UUID toId, Set<BlockPos> positions) {
+        invalidateStorage();
+        Set<BlockPos> oldPoints = connectionMap.get(fromId);
+        if (oldPoints != null) {
+            oldPoints.removeAll(positions);
+            if (oldPoints.isEmpty()) {
+                connectionMap.remove(fromId);
+            }
+        }
+
+        if (!connectionMap.containsKey(toId)) {
+            connectionMap.put(toId, new HashSet<>());
+        }
+        connectionMap.get(toId).addAll(positions);
+    }
+
     // Helper methods to find adjacent cable/pipe positions for bidirectional tracking
     // Can connect to FRAME BLOCKS and CONTROLLER BLOCKS, but NOT interior blocks
     private Set<BlockPos> findAdjacentCablePositions(PowerCableMultiblock cable) {
@@ -1793,152 +1433,212 @@ public class PortalStructure {
         return adjacentPositions;
     }
 
-    // Get connected batteries through power cables
-    public Set<UUID> getConnectedBatteryIds() {
-        Set<UUID> batteryIds = new HashSet<>();
-        for (UUID cableId : connectedPowerCableMultiblocksMap.keySet()) {
-            PowerCableMultiblock cable = PortalMultiblockManager.getPowerCableMultiblock(cableId);
-            if (cable != null) {
-                batteryIds.addAll(cable.getConnectedBatteryIds());
-            }
+    // RESOURCE TRANSACTIONS - reserve energy and fluid together, then commit or roll back
+    public PortalResourceTransaction beginResourceTransaction() {
+        // Only a cost started while another is still reserved (activation before its commit) allocates
+        if (resourceTransaction.isReserved()) {
+            return new PortalResourceTransaction(this).reset();
         }
-        return batteryIds;
+        return resourceTransaction.reset();
     }
 
-    // Get connected tanks through fluid pipes
-    public Set<UUID> getConnectedTankIds() {
-        Set<UUID> tankIds = new HashSet<>();
-        for (UUID pipeId : connectedFluidPipeMultiblocksMap.keySet()) {
-            FluidPipeMultiblock pipe = PortalMultiblockManager.getFluidPipeMultiblock(pipeId);
-            if (pipe != null) {
-                tankIds.addAll(pipe.getConnectedTankIds());
-            }
+    // Takes both amounts or neither
+    public boolean consumeResources(int energy, int fluid) {
+        PortalResourceTransaction transaction = beginResourceTransaction();
+        if (!transaction.reserve(energy, fluid)) {
+            return false;
         }
-        return tankIds;
+        transaction.commit();
+        Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
+                " consumed " + energy + " FE, " + fluid + " mB (remaining: " + getCurrentPower() + " FE, " + getCurrentFluid() + " mB)", true);
+        return true;
     }
 
-    // Power management with round-robin consumption
     public boolean consumePower(int amount) {
-        if (getCurrentPower() < amount) {
-            Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                    " power consumption FAILED: " + amount + " FE requested, but only " + getCurrentPower() + " FE available", true);
-            return false;
-        }
+        return consumeResources(amount, 0);
+    }
 
-        int remaining = amount;
-        Set<UUID> batteryIds = getConnectedBatteryIds();
-        List<UUID> batteryList = new ArrayList<>(batteryIds);
+    public boolean consumeFluid(int amount) {
+        return consumeResources(0, amount);
+    }
 
-        // Round-robin consumption
-        while (remaining > 0 && !batteryList.isEmpty()) {
-            for (UUID batteryId : batteryList) {
-                BatteryMultiblock battery = PortalMultiblockManager.getBatteryMultiblock(batteryId);
-                if (battery != null && battery.getStoredEnergy() > 0) {
-                    int consumed = battery.consumeEnergy(Math.min(10, remaining));
-                    remaining -= consumed;
-                    if (remaining <= 0) break;
-                }
-            }
+    // MAINTENANCE BILLING - accrue per tick, settle in one transaction
+    public int accrueMaintenance(int cost, int ticks) {
+        maintenanceDebt += cost;
+        ticksSinceMaintenanceSettle += ticks;
+        return maintenanceDebt;
+    }
+
+    public boolean isMaintenanceDue(int settleTicks, int debtThreshold) {
+        return ticksSinceMaintenanceSettle >= settleTicks || (debtThreshold > 0 && maintenanceDebt >= debtThreshold);
+    }
+
+    // Pays the whole debt or nothing; the debt is cleared either way
+    public boolean settleMaintenance() {
+        int debt = maintenanceDebt;
+        maintenanceDebt = 0;
+        ticksSinceMaintenanceSettle = 0;
+        return debt == 0 || consumeResources(debt, 0);
+    }
+
+    public int getMaintenanceDebt() {
+        return maintenanceDebt;
+    }
+
+    // Aggregate power/fluid stats - cached, O(1) unless the storage topology changed
+    public int getCurrentPower() {
+        ensureAggregates();
+        return cachedPower;
+    }
+
+    public int getMaxPowerCapacity() {
+        ensureAggregates();
+        return cachedMaxPower;
+    }
+
+    public int getCurrentFluid() {
+        ensureAggregates();
+        return cachedFluid;
+    }
+
+    public int getMaxFluidCapacity() {
+        ensureAggregates();
+        return cachedMaxFluid;
+    }
+
+    private void ensureAggregates() {
+        if (!aggregatesStale) return;
+
+        BatteryMultiblock[] batteries = getConnectedBatteries();
+        cachedPower = 0;
+        cachedMaxPower = 0;
+        for (BatteryMultiblock battery : batteries) {
+            cachedPower += battery.getStoredEnergy();
+            cachedMaxPower += battery.getMaxCapacity();
         }
 
-        boolean success = remaining <= 0;
-        if (success) {
-            Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                    " consumed " + amount + " FE successfully (remaining: " + getCurrentPower() + " FE)", true);
-        } else {
-            Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                    " power consumption PARTIAL: " + (amount - remaining) + "/" + amount + " FE consumed", true);
+        TankMultiblock[] tanks = getConnectedTanks();
+        cachedFluid = 0;
+        cachedMaxFluid = 0;
+        for (TankMultiblock tank : tanks) {
+            cachedFluid += tank.getPortalFluid();
+            cachedMaxFluid += tank.getMaxCapacity();
         }
 
-        markForSave();
-        return success;
+        aggregatesStale = false;
     }
 
-    // Fluid management with round-robin consumption
-    public boolean consumeFluid(int amount) {
-        if (getCurrentFluid() < amount) {
-            Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                    " fluid consumption FAILED: " + amount + " mB requested, but only " + getCurrentFluid() + " mB available", true);
-            return false;
+    // Resolved storage arrays - callers must not modify them
+    BatteryMultiblock[] getConnectedBatteries() {
+        ensureStorageGraph();
+        return connectedBatteries;
+    }
+
+    TankMultiblock[] getConnectedTanks() {
+        ensureStorageGraph();
+        return connectedTanks;
+    }
+
+    private void ensureStorageGraph() {
+        if (!storageGraphStale) {
+            if (storageOrderStale) {
+                sortStorage();
+            }
+            return;
         }
 
-        int remaining = amount;
-        Set<UUID> tankIds = getConnectedTankIds();
-        List<UUID> tankList = new ArrayList<>(tankIds);
+        // Every ID is recorded even if its network isn't loaded yet, so its creation invalidates us
+        Set<UUID> dependencies = new HashSet<>();
 
-        // Round-robin consumption
-        while (remaining > 0 && !tankList.isEmpty()) {
-            for (UUID tankId : tankList) {
+        // Identity sets: the same battery can be reached through several cables
+        Set<BatteryMultiblock> batteries = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (UUID cableId : connectedPowerCableMultiblocksMap.keySet()) {
+            dependencies.add(cableId);
+            PowerCableMultiblock cable = PortalMultiblockManager.getPowerCableMultiblock(cableId);
+            if (cable == null) continue;
+            for (UUID batteryId : cable.getConnectedBatteryIds()) {
+                dependencies.add(batteryId);
+                BatteryMultiblock battery = PortalMultiblockManager.getBatteryMultiblock(batteryId);
+                if (battery != null) batteries.add(battery);
+            }
+        }
+
+        Set<TankMultiblock> tanks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (UUID pipeId : connectedFluidPipeMultiblocksMap.keySet()) {
+            dependencies.add(pipeId);
+            FluidPipeMultiblock pipe = PortalMultiblockManager.getFluidPipeMultiblock(pipeId);
+            if (pipe == null) continue;
+            for (UUID tankId : pipe.getConnectedTankIds()) {
+                dependencies.add(tankId);
                 TankMultiblock tank = PortalMultiblockManager.getTankMultiblock(tankId);
-                if (tank != null && tank.getStoredFluid() > 0) {
-                    int consumed = tank.consumeFluid(Math.min(100, remaining));
-                    remaining -= consumed;
-                    if (remaining <= 0) break;
-                }
+                if (tank != null) tanks.add(tank);
             }
         }
 
-        boolean success = remaining <= 0;
-        if (success) {
-            Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                    " consumed " + amount + " mB successfully (remaining: " + getCurrentFluid() + " mB)", true);
-        } else {
-            Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                    " fluid consumption PARTIAL: " + (amount - remaining) + "/" + amount + " mB consumed", true);
+        connectedBatteries = batteries.isEmpty() ? NO_BATTERIES : batteries.toArray(NO_BATTERIES);
+        connectedTanks = tanks.isEmpty() ? NO_TANKS : tanks.toArray(NO_TANKS);
+        sortStorage();
+
+        for (UUID networkId : dependencies) {
+            PortalMultiblockManager.addStorageDependency(networkId, this);
         }
+        storageDependencies.addAll(dependencies);
+        storageGraphStale = false;
+    }
 
-        markForSave();
-        return success;
+    // Largest storage first - this is the drain order in priority mode
+    private void sortStorage() {
+        Arrays.sort(connectedBatteries, Comparator.comparingInt(BatteryMultiblock::getMaxCapacity).reversed());
+        Arrays.sort(connectedTanks, Comparator.comparingInt(TankMultiblock::getMaxCapacity).reversed());
+        storageOrderStale = false;
     }
 
-    // Aggregate power/fluid stats - now calculated dynamically
-    public int getCurrentPower() {
-        int total = 0;
-        for (UUID batteryId : getConnectedBatteryIds()) {
-            BatteryMultiblock battery = PortalMultiblockManager.getBatteryMultiblock(batteryId);
-            if (battery != null) {
-                total += battery.getStoredEnergy();
-            }
+    // Called when this portal's wiring, or a network its storage routes through, changes
+    void invalidateStorage() {
+        for (UUID networkId : storageDependencies) {
+            PortalMultiblockManager.removeStorageDependency(networkId, this);
         }
-        return total;
+        storageDependencies.clear();
+        storageGraphStale = true;
+        aggregatesStale = true;
     }
 
-    public int getMaxPowerCapacity() {
-        int total = 0;
-        for (UUID batteryId : getConnectedBatteryIds()) {
-            BatteryMultiblock battery = PortalMultiblockManager.getBatteryMultiblock(batteryId);
-            if (battery != null) {
-                total += battery.getMaxCapacity();
-            }
+    // Called by the manager when a battery this portal draws from gains or loses energy
+    void applyPowerDelta(int delta) {
+        if (!aggregatesStale) {
+            cachedPower += delta;
         }
-        return total;
     }
 
-    public int getCurrentFluid() {
-        int total = 0;
-        for (UUID tankId : getConnectedTankIds()) {
-            TankMultiblock tank = PortalMultiblockManager.getTankMultiblock(tankId);
-            if (tank != null) {
-                total += tank.getStoredFluid();
-            }
+    void applyFluidDelta(int delta) {
+        if (!aggregatesStale) {
+            cachedFluid += delta;
         }
-        return total;
     }
 
-    public int getMaxFluidCapacity() {
-        int total = 0;
-        for (UUID tankId : getConnectedTankIds()) {
-            TankMultiblock tank = PortalMultiblockManager.getTankMultiblock(tankId);
-            if (tank != null) {
-                total += tank.getMaxCapacity();
-            }
+    // Called when a battery/tank this portal draws from gains or loses blocks
+    void applyPowerCapacityDelta(int delta) {
+        storageOrderStale = true;
+        if (!aggregatesStale) {
+            cachedMaxPower += delta;
+        }
+    }
+
+    void applyFluidCapacityDelta(int delta) {
+        storageOrderStale = true;
+        if (!aggregatesStale) {
+            cachedMaxFluid += delta;
         }
-        return total;
     }
 
     // PORTAL ACTIVATION METHODS
     public String activatePortal(PortalStructure teleportToPortal) {
         String error = "";
+        // Edits made earlier this tick may not have been validated yet
+        PortalRevalidationQueue.flush(this);
+        if (teleportToPortal != null) {
+            PortalRevalidationQueue.flush(teleportToPortal);
+        }
         if (!isValid) {
             Logger.sendMessage("Cannot activate invalid portal structure", true);
             error = "Cannot activate invalid current portal structure";
@@ -1968,22 +1668,21 @@ public class PortalStructure {
             settings.setActivatingSide(false);
             return "cannot activate portal Insufficient power";
         }
-        // Consume activation fluid
-        if (!consumeFluid(PortalManager.ACTIVATION_FLUID_COST)) {
+        // Reserve activation fluid - only kept once the portal actually opens
+        PortalResourceTransaction transaction = beginResourceTransaction();
+        if (!transaction.reserve(0, PortalManager.ACTIVATION_FLUID_COST)) {
             Logger.sendMessage("Failed to consume activation fluid", true);
             settings.setActivatingSide(false);
             return "Failed to consume activation fluid";
         }
 
-        // Check initial power
-
-
         // Activate portal
         isActive = true;
-        settings.setActivationTime(System.currentTimeMillis());
+        settings.setActivationTime(PortalManager.getClock().getTick());
 
         // Register with PortalManager for tick processing
         PortalManager.registerActivePortal(this);
+        transaction.commit();
 
         // Activate linked portals (they open for free)
 
@@ -1997,12 +1696,31 @@ public class PortalStructure {
 
 
 
+    public void setActive(boolean active) {
+        if (!active) {
+            deactivatePortal();
+            return;
+        }
+        if (isActive || !isValid) return;
+
+        isActive = true;
+        PortalManager.registerActivePortal(this);
+        markForSave();
+    }
+
     private void deactivatePortal() {
         if (!isActive) return;
 
         isActive = false;
         settings.setActivatingSide(false);
 
+        // Closing doesn't cancel the bill - take what's owed, or whatever is left if that's less
+        if (maintenanceDebt > 0) {
+            consumeResources(Math.min(maintenanceDebt, getCurrentPower()), 0);
+        }
+        maintenanceDebt = 0;
+        ticksSinceMaintenanceSettle = 0;
+
         // Unregister from PortalManager
         PortalManager.unregisterPortal(this);
 
@@ -2075,7 +1793,8 @@ public class PortalStructure {
     // Getters
     public UUID getPortalId() { return portalId; }
     public Set<BlockPos> getFrameBlocks() { return Collections.unmodifiableSet(frameBlocks); }
-    public Set<BlockPos> getInteriorBlocks() { return Collections.unmodifiableSet(interiorBlocks); }
+    public Set<BlockPos> getInteriorBlocks() { return interiorBlocks; }
+    public InteriorRegion getInteriorRegion() { return interiorBlocks.getRegion(); }
     public Level getLevel() { return level; }
     public ResourceKey<Level> getLevelKey() { return levelKey; }
 
@@ -2093,45 +1812,21 @@ public class PortalStructure {
 
     // Portal dimensions
     public PortalDimensions getDimensions() {
-        if (frameBlocks.isEmpty()) return new PortalDimensions(0, 0);
-
-        // Determine plane orientation
-        Set<Integer> xValues = new HashSet<>();
-        Set<Integer> zValues = new HashSet<>();
-
-        for (BlockPos pos : frameBlocks) {
-            xValues.add(pos.getX());
-            zValues.add(pos.getZ());
+        int version = frameGeometry.getBoxVersion();
+        if (cachedDimensions == null || cachedDimensionsVersion != version) {
+            cachedDimensions = new PortalDimensions(frameGeometry.getInteriorWidth(), frameGeometry.getInteriorHeight());
+            cachedDimensionsVersion = version;
         }
+        return cachedDimensions;
+    }
 
-        boolean constantX = xValues.size() == 1;
-        boolean constantZ = zValues.size() == 1;
-
-        if (!constantX && !constantZ) return new PortalDimensions(0, 0);
-
-        // Get min/max Y
-        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
-        int minOther = Integer.MAX_VALUE, maxOther = Integer.MIN_VALUE;
-
-        for (BlockPos pos : frameBlocks) {
-            minY = Math.min(minY, pos.getY());
-            maxY = Math.max(maxY, pos.getY());
-
-            if (constantX) {
-                int z = pos.getZ();
-                minOther = Math.min(minOther, z);
-                maxOther = Math.max(maxOther, z);
-            } else {
-                int x = pos.getX();
-                minOther = Math.min(minOther, x);
-                maxOther = Math.max(maxOther, x);
-            }
+    private PortalBounds getFrameBounds() {
+        int version = frameGeometry.getBoxVersion();
+        if (cachedBoundsVersion != version) {
+            cachedFrameBounds = PortalBounds.fromFrameGeometry(frameGeometry);
+            cachedBoundsVersion = version;
         }
-
-        int interiorWidth = maxOther - minOther - 1;
-        int interiorHeight = maxY - minY - 1;
-
-        return new PortalDimensions(interiorWidth, interiorHeight);
+        return cachedFrameBounds;
     }
 
     public static class PortalDimensions {
@@ -2199,18 +1894,15 @@ public class PortalStructure {
         int powerCost = 1000;
         int fluidCost = 100;
 
-        if (getCurrentPower() >= powerCost && getCurrentFluid() >= fluidCost) {
-            boolean success = consumePower(powerCost) && consumeFluid(fluidCost);
-            if (success) {
-                Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                        " consumed teleport resources: " + powerCost + " FE, " + fluidCost + " mB", true);
-            }
-            return success;
+        // One reservation for both - a fluid shortfall can no longer eat the power
+        PortalResourceTransaction transaction = beginResourceTransaction();
+        if (!transaction.reserve(powerCost, fluidCost)) {
+            return false;
         }
+        transaction.commit();
         Logger.sendMessage("PortalStructure " + portalId.toString().substring(0, 8) +
-                " teleport resources INSUFFICIENT: " + getCurrentPower() + "/" + powerCost + " FE, " +
-                getCurrentFluid() + "/" + fluidCost + " mB", true);
-        return false;
+                " consumed teleport resources: " + powerCost + " FE, " + fluidCost + " mB", true);
+        return true;
     }
 
     // Settings getters
@@ -2221,8 +1913,8 @@ public class PortalStructure {
         settings.setCloseAfterTeleport(close);
         markForSave();
     }
-    public boolean isDurationExpired(long currentTime) {
-        return settings.isDurationExpired(currentTime);
+    public boolean isDurationExpired(long currentTick) {
+        return settings.isDurationExpired(currentTick);
     }
 
     // Bounds getter
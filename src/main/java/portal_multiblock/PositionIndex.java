@@ -0,0 +1,67 @@
+package portal_multiblock;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Spatial index from block position to the multiblock that owns it.
+ * Positions are bucketed per level and per chunk section (packed long), so a lookup
+ * is two primitive hash probes no matter how many multiblocks are registered.
+ */
+public class PositionIndex<T> {
+    private final Map<Level, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<T>>> levels = new IdentityHashMap<>();
+
+    public void put(Level level, BlockPos pos, T owner) {
+        if (level == null || owner == null) return;
+        levels.computeIfAbsent(level, l -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(sectionKey(pos), k -> new Long2ObjectOpenHashMap<>())
+                .put(pos.asLong(), owner);
+    }
+
+    // Only removes the entry if it still belongs to the given owner, so a stale
+    // multiblock can't evict the position from the one that absorbed it
+    public void remove(Level level, BlockPos pos, T owner) {
+        Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<T>> sections = levels.get(level);
+        if (sections == null) return;
+
+        long sectionKey = sectionKey(pos);
+        Long2ObjectOpenHashMap<T> section = sections.get(sectionKey);
+        if (section == null) return;
+
+        long posKey = pos.asLong();
+        if (section.get(posKey) == owner) {
+            section.remove(posKey);
+            if (section.isEmpty()) {
+                sections.remove(sectionKey);
+            }
+        }
+    }
+
+    public T get(Level level, BlockPos pos) {
+        Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<T>> sections = levels.get(level);
+        if (sections == null) return null;
+
+        Long2ObjectOpenHashMap<T> section = sections.get(sectionKey(pos));
+        return section != null ? section.get(pos.asLong()) : null;
+    }
+
+    public void clearLevel(Level level) {
+        levels.remove(level);
+    }
+
+    public void clear() {
+        levels.clear();
+    }
+
+    private static long sectionKey(BlockPos pos) {
+        return SectionPos.asLong(
+                SectionPos.blockToSectionCoord(pos.getX()),
+                SectionPos.blockToSectionCoord(pos.getY()),
+                SectionPos.blockToSectionCoord(pos.getZ()));
+    }
+}
@@ -0,0 +1,27 @@
+package portal_multiblock;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+/**
+ * Overworld game time. It only moves when the server actually ticks, so lag stretches durations
+ * instead of cutting them short, and it's saved with the world, so activation ticks stored in
+ * portal NBT still mean the same thing after a restart.
+ */
+public class ServerTickClock implements PortalClock {
+    // Last value read, returned while no server is running
+    private long lastTick;
+
+    @Override
+    public long getTick() {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            ServerLevel overworld = server.overworld();
+            if (overworld != null) {
+                lastTick = overworld.getGameTime();
+            }
+        }
+        return lastTick;
+    }
+}
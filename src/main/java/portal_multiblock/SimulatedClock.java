@@ -0,0 +1,24 @@
+package portal_multiblock;
+
+/**
+ * Clock that only moves when told to, for deterministic benchmark and soak runs.
+ */
+public class SimulatedClock implements PortalClock {
+    private long tick;
+
+    public SimulatedClock(long startTick) {
+        this.tick = startTick;
+    }
+
+    @Override
+    public long getTick() {
+        return tick;
+    }
+
+    public void advance(long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Clock can't go backwards: " + ticks);
+        }
+        tick += ticks;
+    }
+}
@@ -0,0 +1,181 @@
+package portal_multiblock;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.Fluids;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+import portal_battery.BatteryMultiblock;
+import portal_fluid_tank.TankMultiblock;
+
+import java.util.*;
+
+/**
+ * Per-level record of every battery and tank network: its counter, fluid type and member count,
+ * plus where networks absorbed by a merge went. Block entities only save their network ID, so a
+ * chunk that stays unloaded while its network charges or drains can't bring a stale amount back -
+ * on reload the ID is followed to the surviving network and the block only restores membership.
+ * Networks that changed are written out when their level saves, and once more before shutdown
+ * clears the registries.
+ */
+@Mod.EventBusSubscriber(modid = "advanced_portals", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class StorageNetworkData extends SavedData {
+    private static final String DATA_NAME = "advanced_portals_storage";
+
+    // Networks whose counters moved since their level last saved
+    private static final Set<BatteryMultiblock> changedBatteries = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static final Set<TankMultiblock> changedTanks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * What a network held when last recorded. Members counts every block, loaded or not,
+     * so capacity is right before the whole network has rejoined.
+     */
+    public record SavedNetwork(int amount, int members, Fluid fluid) {}
+
+    private final ServerLevel level;
+    private final Map<UUID, SavedNetwork> networks = new HashMap<>();
+    // Absorbed network ID -> survivor, always pointing straight at the current survivor
+    private final Map<UUID, UUID> forwards = new HashMap<>();
+
+    private StorageNetworkData(ServerLevel level) {
+        this.level = level;
+    }
+
+    // Null on the client
+    public static StorageNetworkData get(Level level) {
+        if (!(level instanceof ServerLevel serverLevel)) return null;
+        return serverLevel.getDataStorage().computeIfAbsent(
+                tag -> load(serverLevel, tag), () -> new StorageNetworkData(serverLevel), DATA_NAME);
+    }
+
+    public static void markChanged(BatteryMultiblock battery) {
+        if (changedBatteries.add(battery)) {
+            StorageNetworkData data = get(battery.getLevel());
+            if (data != null) data.setDirty();
+        }
+    }
+
+    public static void markChanged(TankMultiblock tank) {
+        if (changedTanks.add(tank)) {
+            StorageNetworkData data = get(tank.getLevel());
+            if (data != null) data.setDirty();
+        }
+    }
+
+    // A block that unloaded before a merge still carries the absorbed network's ID
+    public UUID resolve(UUID networkId) {
+        return forwards.getOrDefault(networkId, networkId);
+    }
+
+    public SavedNetwork getSaved(UUID networkId) {
+        return networks.get(networkId);
+    }
+
+    public void forward(UUID absorbedId, UUID survivorId) {
+        networks.remove(absorbedId);
+        forwards.replaceAll((from, to) -> to.equals(absorbedId) ? survivorId : to);
+        forwards.put(absorbedId, survivorId);
+        setDirty();
+    }
+
+    // Every block of the network is gone, including the ones that still carried absorbed IDs
+    public void forget(UUID networkId) {
+        networks.remove(networkId);
+        forwards.values().removeIf(networkId::equals);
+        setDirty();
+    }
+
+    private void recordChanged() {
+        for (Iterator<BatteryMultiblock> it = changedBatteries.iterator(); it.hasNext(); ) {
+            BatteryMultiblock battery = it.next();
+            if (battery.getLevel() != level) continue;
+            it.remove();
+            // Merged away or destroyed since it changed
+            if (PortalMultiblockManager.getBatteryMultiblock(battery.getMultiblockId()) != battery) continue;
+            networks.put(battery.getMultiblockId(), new SavedNetwork(
+                    battery.getStoredEnergy() + battery.getPendingEnergy(), battery.getMemberCount(), null));
+        }
+        for (Iterator<TankMultiblock> it = changedTanks.iterator(); it.hasNext(); ) {
+            TankMultiblock tank = it.next();
+            if (tank.getLevel() != level) continue;
+            it.remove();
+            if (PortalMultiblockManager.getTankMultiblock(tank.getMultiblockId()) != tank) continue;
+            networks.put(tank.getMultiblockId(), new SavedNetwork(
+                    tank.getStoredFluid() + tank.getPendingFill() - tank.getPendingDrain(), tank.getMemberCount(), tank.getFluidType()));
+        }
+    }
+
+    // Before the registries are cleared; the final level save then writes what was recorded here
+    @SubscribeEvent(priority = EventPriority.HIGH)
+    public static void onServerStopping(ServerStoppingEvent event) {
+        Set<Level> levels = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BatteryMultiblock battery : changedBatteries) levels.add(battery.getLevel());
+        for (TankMultiblock tank : changedTanks) levels.add(tank.getLevel());
+        for (Level changedLevel : levels) {
+            StorageNetworkData data = get(changedLevel);
+            if (data != null) data.recordChanged();
+        }
+        changedBatteries.clear();
+        changedTanks.clear();
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        recordChanged();
+
+        ListTag networkList = new ListTag();
+        for (Map.Entry<UUID, SavedNetwork> entry : networks.entrySet()) {
+            SavedNetwork saved = entry.getValue();
+            CompoundTag networkTag = new CompoundTag();
+            networkTag.putUUID("Id", entry.getKey());
+            networkTag.putInt("Amount", saved.amount());
+            networkTag.putInt("Members", saved.members());
+            if (saved.fluid() != null && saved.fluid() != Fluids.EMPTY) {
+                networkTag.putString("FluidName", ForgeRegistries.FLUIDS.getKey(saved.fluid()).toString());
+            }
+            networkList.add(networkTag);
+        }
+        tag.put("Networks", networkList);
+
+        ListTag forwardList = new ListTag();
+        for (Map.Entry<UUID, UUID> entry : forwards.entrySet()) {
+            CompoundTag forwardTag = new CompoundTag();
+            forwardTag.putUUID("From", entry.getKey());
+            forwardTag.putUUID("To", entry.getValue());
+            forwardList.add(forwardTag);
+        }
+        tag.put("Forwards", forwardList);
+        return tag;
+    }
+
+    private static StorageNetworkData load(ServerLevel level, CompoundTag tag) {
+        StorageNetworkData data = new StorageNetworkData(level);
+
+        ListTag networkList = tag.getList("Networks", Tag.TAG_COMPOUND);
+        for (int i = 0; i < networkList.size(); i++) {
+            CompoundTag networkTag = networkList.getCompound(i);
+            Fluid fluid = null;
+            if (networkTag.contains("FluidName")) {
+                fluid = ForgeRegistries.FLUIDS.getValue(ResourceLocation.tryParse(networkTag.getString("FluidName")));
+            }
+            data.networks.put(networkTag.getUUID("Id"),
+                    new SavedNetwork(networkTag.getInt("Amount"), networkTag.getInt("Members"), fluid));
+        }
+
+        ListTag forwardList = tag.getList("Forwards", Tag.TAG_COMPOUND);
+        for (int i = 0; i < forwardList.size(); i++) {
+            CompoundTag forwardTag = forwardList.getCompound(i);
+            data.forwards.put(forwardTag.getUUID("From"), forwardTag.getUUID("To"));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,65 @@
+package portal_multiblock;
+
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import portal_battery.BatteryMultiblock;
+import portal_fluid_tank.TankMultiblock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies capability transfers once per tick per network. A generator or pump touching any
+ * battery or tank block only bumps the network's pending counters; at the end of the tick each
+ * network that saw traffic gets one update, so one delta reaches the portal caches no matter
+ * how many blocks or machines were involved.
+ */
+@Mod.EventBusSubscriber(modid = "advanced_portals", bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class StorageTransferBatcher {
+    private static final Set<BatteryMultiblock> pendingBatteries = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static final Set<TankMultiblock> pendingTanks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public static void schedule(BatteryMultiblock battery) {
+        pendingBatteries.add(battery);
+    }
+
+    public static void schedule(TankMultiblock tank) {
+        pendingTanks.add(tank);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        flushAll();
+    }
+
+    // Pending inserts belong in the counter before anything derives shares from it
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onServerStopping(ServerStoppingEvent event) {
+        flushAll();
+    }
+
+    private static void flushAll() {
+        // Copy first - a flush may not add to the sets, but a listener reacting to it could
+        if (!pendingBatteries.isEmpty()) {
+            List<BatteryMultiblock> batteries = new ArrayList<>(pendingBatteries);
+            pendingBatteries.clear();
+            for (BatteryMultiblock battery : batteries) {
+                battery.finishTick();
+            }
+        }
+        if (!pendingTanks.isEmpty()) {
+            List<TankMultiblock> tanks = new ArrayList<>(pendingTanks);
+            pendingTanks.clear();
+            for (TankMultiblock tank : tanks) {
+                tank.flushPendingTransfers();
+            }
+        }
+    }
+}
@@ -7,11 +7,14 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import portal_multiblock.MultiblockRejoinQueue;
+import portal_multiblock.NetworkHandle;
 
 import java.util.UUID;
 
-public class PortalPowerCableBlockEntity extends BlockEntity {
-    public PowerCableMultiblock multiblock;
+public class PortalPowerCableBlockEntity extends BlockEntity implements MultiblockRejoinQueue.Rejoinable {
+    // Handle instead of a direct reference so merges don't have to touch this block entity
+    private NetworkHandle<PowerCableMultiblock> network;
     public boolean joinedMultiblock=true;
     // Track multiblock ID for lazy loading
     private UUID powerCableMultiblockId;
@@ -34,23 +37,30 @@ public class PortalPowerCableBlockEntity extends BlockEntity {
 
         }
     }
-public static void tick(Level level, BlockPos pos, BlockState state, PortalPowerCableBlockEntity be) {
-    //Logger.sendMessage("ontick is running be joinedmultiblock: "+be.joinedMultiblock,false);
-    if(!be.joinedMultiblock) {
-        be.multiblock = PowerCableMultiblock.getOrCreatePowerCableMultiblock(be.powerCableMultiblockId,be.level);
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        if (level != null && !level.isClientSide && !joinedMultiblock) {
+            MultiblockRejoinQueue.enqueue(this);
+        }
+    }
 
-        be.multiblock.addCablePosition(be.getBlockPos());
-        PowerCableMultiblock.scanAndConnectToNearbyBatteries(be.multiblock,pos,be.level);
-        be.joinedMultiblock=true;
+    @Override
+    public void rejoinMultiblock() {
+        if(!joinedMultiblock) {
+            PowerCableMultiblock multiblock = PowerCableMultiblock.getOrCreatePowerCableMultiblock(powerCableMultiblockId,level);
 
+            multiblock.addCablePosition(worldPosition);
+            PowerCableMultiblock.scanAndConnectToNearbyBatteries(multiblock,worldPosition,level);
+            joinedMultiblock=true;
+        }
     }
-
-}
     @Override
     protected void saveAdditional(CompoundTag tag) {
         super.saveAdditional(tag);
 
         // FIXED: Only save the multiblock UUID
+        PowerCableMultiblock multiblock = getMultiblock();
         if(multiblock != null) {
             tag.putUUID("powerCableMultiblockId", multiblock.id);
 
@@ -61,7 +71,7 @@ public static void tick(Level level, BlockPos pos, BlockState state, PortalPower
 
     // FIXED: Public method to set multiblock
     public void setMultiblock(PowerCableMultiblock multiblock) {
-        this.multiblock = multiblock;
+        this.network = multiblock != null ? multiblock.getHandle() : null;
         if (multiblock != null) {
             this.powerCableMultiblockId = multiblock.id;
         }
@@ -69,6 +79,6 @@ public static void tick(Level level, BlockPos pos, BlockState state, PortalPower
 
     // FIXED: Add public getter for multiblock
     public PowerCableMultiblock getMultiblock() {
-        return multiblock;
+        return network != null ? network.resolve() : null;
     }
 }
@@ -7,6 +7,9 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import portal_battery.BatteryMultiblock;
 import portal_battery.PortalBatteryBlock;
+import portal_multiblock.BlockPosSet;
+import portal_multiblock.ConnectedComponents;
+import portal_multiblock.NetworkHandle;
 import portal_multiblock.PortalMultiblockManager;
 import portal_multiblock.PortalStructure;
 import advanced_portals.Logger;
@@ -15,7 +18,8 @@ import java.util.*;
 public class PowerCableMultiblock {
     public UUID id;
     private Level level;
-    private Set<BlockPos> cableBlockPositions;
+    private final BlockPosSet cableBlockPositions;
+    private final NetworkHandle<PowerCableMultiblock> handle;
     public Map<UUID, Set<BlockPos>> connectedBatteryMultiblocksMap;
     public Set<BatteryMultiblock> connectedBatteryMultiblocks;
 
@@ -25,7 +29,8 @@ public class PowerCableMultiblock {
     public PowerCableMultiblock(UUID id, Level level) {
         this.id = id;
         this.level = level;
-        this.cableBlockPositions = new HashSet<>();
+        this.cableBlockPositions = new BlockPosSet();
+        this.handle = new NetworkHandle<>(this);
         this.connectedBatteryMultiblocksMap = new HashMap<>();
         this.connectedBatteryMultiblocks = new HashSet<>();
         this.connectedPortalStructuresMap = new HashMap<>();
@@ -142,9 +147,9 @@ public class PowerCableMultiblock {
                     BatteryMultiblock batteryMultiblock = null;
                     batteryMultiblock = BatteryMultiblock.getMultiblockFromBlockEntity(neighborPos, level);
                     if (batteryMultiblock == null && batteryBE.batteryMultiblockId != null) {
-                        batteryMultiblock = BatteryMultiblock.getOrCreateBatteryMultiblock(batteryBE.batteryMultiblockId, level);
-                        batteryMultiblock.addBattery(neighborPos);
-                        batteryBE.setBatteryMultiblock(batteryMultiblock);
+                        // Same path as the rejoin queue, so the battery only restores membership
+                        batteryBE.rejoinMultiblock();
+                        batteryMultiblock = batteryBE.getBatteryMultiblock();
                         Logger.sendMessage("REPOPULATION: Restored battery multiblock at " + neighborPos + " for cable at " + pos, true);
                     }
                     if (batteryMultiblock != null) {
@@ -158,8 +163,8 @@ public class PowerCableMultiblock {
 
     private static PowerCableMultiblock mergeAllAdjacentMultiblocks(Set<PowerCableMultiblock> multiblocksToMerge) {
         if (multiblocksToMerge.isEmpty()) return null;
-        Iterator<PowerCableMultiblock> iterator = multiblocksToMerge.iterator();
-        PowerCableMultiblock mainMultiblock = iterator.next();
+        // Union by size: the largest network survives, so only the smaller ones get moved
+        PowerCableMultiblock mainMultiblock = Collections.max(multiblocksToMerge, Comparator.comparingInt(multiblock -> multiblock.cableBlockPositions.size()));
 
         if (multiblocksToMerge.size() == 1) {
             Logger.sendMessage("Only one adjacent PowerCableMultiblock " + mainMultiblock.id.toString().substring(0, 8) + " found", true);
@@ -171,11 +176,7 @@ public class PowerCableMultiblock {
         int totalBatteryConnectionsBefore = mainMultiblock.connectedBatteryMultiblocksMap.size();
         int totalPortalConnectionsBefore = mainMultiblock.connectedPortalStructuresMap.size();
 
-        Set<BlockPos> allPositionsToUpdate = new HashSet<>();
-        while (iterator.hasNext()) {
-            PowerCableMultiblock otherMultiblock = iterator.next();
-            allPositionsToUpdate.addAll(otherMultiblock.cableBlockPositions);
-
+        for (PowerCableMultiblock otherMultiblock : multiblocksToMerge) {
             if (otherMultiblock.id.equals(mainMultiblock.id)) continue;
 
             int cablesToAdd = otherMultiblock.cableBlockPositions.size();
@@ -183,11 +184,12 @@ public class PowerCableMultiblock {
             int portalConnectionsToAdd = otherMultiblock.connectedPortalStructuresMap.size();
             mainMultiblock.mergeWith(otherMultiblock);
             PortalMultiblockManager.removePowerCableMultiblock(otherMultiblock);
+            // Block entities of the absorbed network follow through its handle - no per-block rewrite
+            otherMultiblock.handle.forwardTo(mainMultiblock.handle);
 
             Logger.sendMessage("Merged PowerCableMultiblock " + otherMultiblock.id.toString().substring(0, 8) + " into " + mainMultiblock.id.toString().substring(0, 8) + " (+" + cablesToAdd + " cables, +" + batteryConnectionsToAdd + " battery connections, +" + portalConnectionsToAdd + " portal connections)", true);
         }
 
-        updateAllBlockEntityReferences(mainMultiblock, allPositionsToUpdate);
         int totalCablesAdded = mainMultiblock.cableBlockPositions.size() - totalCablesBefore;
         int totalBatteryConnectionsAdded = mainMultiblock.connectedBatteryMultiblocksMap.size() - totalBatteryConnectionsBefore;
         int totalPortalConnectionsAdded = mainMultiblock.connectedPortalStructuresMap.size() - totalPortalConnectionsBefore;
@@ -196,22 +198,12 @@ public class PowerCableMultiblock {
         return mainMultiblock;
     }
 
-    private static void updateAllBlockEntityReferences(PowerCableMultiblock multiblock, Set<BlockPos> positionsToUpdate) {
-        if (multiblock.level == null) return;
-        int updatedCount = 0;
-        for (BlockPos pos : positionsToUpdate) {
-            BlockEntity blockEntity = multiblock.level.getBlockEntity(pos);
-            if (blockEntity instanceof PortalPowerCableBlockEntity) {
-                ((PortalPowerCableBlockEntity) blockEntity).setMultiblock(multiblock);
-                updatedCount++;
-            }
-        }
-        Logger.sendMessage("Updated " + updatedCount + " block entity references to PowerCableMultiblock " + multiblock.id.toString().substring(0, 8), true);
-    }
-
     public void handleCableBlockBreak(BlockPos removedPos) {
+        // Connections below are edited in place and may move to split-off networks
+        PortalMultiblockManager.markStorageChanged(id);
         Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " removing cable at " + removedPos + " (currently " + cableBlockPositions.size() + " cables)", true);
         cableBlockPositions.remove(removedPos);
+        PortalMultiblockManager.unindexPowerCableBlock(level, removedPos, this);
 
         // CRITICAL: Remove portal connections for this cable
         removePortalConnectionsForCable(removedPos);
@@ -220,6 +212,94 @@ public class PowerCableMultiblock {
         if (cableBlockPositions.isEmpty()) {
             PortalMultiblockManager.removePowerCableMultiblock(this);
             Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " DESTROYED (no cables remaining)", true);
+            return;
+        }
+
+        // Check if cutting this cable separated the network
+        List<BlockPosSet> detachedComponents = ConnectedComponents.findDetachedComponents(cableBlockPositions, removedPos);
+        if (!detachedComponents.isEmpty()) {
+            Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " splitting into " + (detachedComponents.size() + 1) + " components", true);
+            splitIntoComponents(detachedComponents);
+        }
+    }
+
+    private void splitIntoComponents(List<BlockPosSet> detachedComponents) {
+        for (BlockPosSet component : detachedComponents) {
+            cableBlockPositions.removeAll(component);
+
+            PowerCableMultiblock newMultiblock = new PowerCableMultiblock(UUID.randomUUID(), level);
+            for (BlockPos pos : component) {
+                newMultiblock.addCablePosition(pos);
+            }
+
+            // CRITICAL: Connections made through the detached cables follow them to the new network
+            transferBatteryConnections(newMultiblock, component);
+            transferPortalConnections(newMultiblock, component);
+
+            Logger.sendMessage("Created new PowerCableMultiblock " + newMultiblock.id.toString().substring(0, 8) + " with " + component.size() + " cables from split", true);
+        }
+
+        Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " now has " + cableBlockPositions.size() + " cables after split", true);
+    }
+
+    private void transferBatteryConnections(PowerCableMultiblock newMultiblock, Set<BlockPos> component) {
+        for (UUID batteryId : new ArrayList<>(connectedBatteryMultiblocksMap.keySet())) {
+            Set<BlockPos> connectionPoints = connectedBatteryMultiblocksMap.get(batteryId);
+            Set<BlockPos> pointsToMove = new HashSet<>();
+            for (BlockPos cablePos : connectionPoints) {
+                if (component.contains(cablePos)) {
+                    pointsToMove.add(cablePos);
+                }
+            }
+            if (pointsToMove.isEmpty()) continue;
+
+            BatteryMultiblock battery = PortalMultiblockManager.getBatteryMultiblock(batteryId);
+            for (BlockPos cablePos : pointsToMove) {
+                if (battery != null) {
+                    removeBatteryConnection(battery, cablePos);
+                    battery.removeCableConnectionFromCable(this.id, cablePos);
+                    newMultiblock.addBatteryConnection(battery, cablePos);
+                } else {
+                    connectionPoints.remove(cablePos);
+                    if (!newMultiblock.connectedBatteryMultiblocksMap.containsKey(batteryId)) {
+                        newMultiblock.connectedBatteryMultiblocksMap.put(batteryId, new HashSet<>());
+                    }
+                    newMultiblock.connectedBatteryMultiblocksMap.get(batteryId).add(cablePos);
+                }
+            }
+
+            if (connectionPoints.isEmpty()) {
+                connectedBatteryMultiblocksMap.remove(batteryId);
+                connectedBatteryMultiblocks.removeIf(existing -> existing.getMultiblockId().equals(batteryId));
+            }
+            Logger.sendMessage("Moved " + pointsToMove.size() + " connection points to BatteryMultiblock " + batteryId.toString().substring(0, 8) + " over to new PowerCableMultiblock " + newMultiblock.id.toString().substring(0, 8), true);
+        }
+    }
+
+    private void transferPortalConnections(PowerCableMultiblock newMultiblock, Set<BlockPos> component) {
+        for (UUID portalId : new ArrayList<>(connectedPortalStructuresMap.keySet())) {
+            Set<BlockPos> connectionPoints = connectedPortalStructuresMap.get(portalId);
+            Set<BlockPos> pointsToMove = new HashSet<>();
+            for (BlockPos cablePos : connectionPoints) {
+                if (component.contains(cablePos)) {
+                    pointsToMove.add(cablePos);
+                }
+            }
+            if (pointsToMove.isEmpty()) continue;
+
+            connectionPoints.removeAll(pointsToMove);
+            if (connectionPoints.isEmpty()) {
+                connectedPortalStructuresMap.remove(portalId);
+            }
+            for (BlockPos cablePos : pointsToMove) {
+                newMultiblock.addPortalConnectionFromPortal(portalId, cablePos);
+            }
+
+            // CRITICAL: Keep the portal side pointing at the network that actually owns these cables
+            PortalStructure portal = PortalMultiblockManager.getPortalStructure(portalId);
+            if (portal != null) {
+                portal.reassignPowerCableConnectionPoints(this.id, newMultiblock.id, pointsToMove);
+            }
         }
     }
 
@@ -283,6 +363,7 @@ public class PowerCableMultiblock {
 
     public void addCablePosition(BlockPos pos) {
         cableBlockPositions.add(pos);
+        PortalMultiblockManager.indexPowerCableBlock(level, pos, this);
         BlockEntity blockEntity = level.getBlockEntity(pos);
         if (blockEntity instanceof PortalPowerCableBlockEntity) {
             ((PortalPowerCableBlockEntity) blockEntity).setMultiblock(this);
@@ -314,6 +395,8 @@ public class PowerCableMultiblock {
         connectedBatteryMultiblocks.add(battery);
 
         if (isNewConnection) {
+            // Only a battery new to this cable changes what its portals can reach
+            PortalMultiblockManager.markStorageChanged(id);
             Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " CONNECTED to BatteryMultiblock " + batteryId.toString().substring(0, 8) + " via cable at " + cablePos, true);
         } else {
             Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " added connection to BatteryMultiblock " + batteryId.toString().substring(0, 8) + " at " + cablePos + " (" + connectedBatteryMultiblocksMap.get(batteryId).size() + " total connections)", true);
@@ -342,6 +425,7 @@ public class PowerCableMultiblock {
             if (connectionPoints.isEmpty()) {
                 connectedBatteryMultiblocksMap.remove(batteryId);
                 connectedBatteryMultiblocks.remove(battery);
+                PortalMultiblockManager.markStorageChanged(id);
                 Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " DISCONNECTED from BatteryMultiblock " + batteryId.toString().substring(0, 8) + " (no more connection points)", true);
             } else if (hadConnection) {
                 Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " removed connection point to BatteryMultiblock " + batteryId.toString().substring(0, 8) + " at " + cablePos + " (" + connectionPoints.size() + " connection points remain)", true);
@@ -353,6 +437,7 @@ public class PowerCableMultiblock {
 
     // NEW METHOD: Add portal connection from portal side
     public void addPortalConnectionFromPortal(UUID portalId, BlockPos cablePos) {
+        PortalMultiblockManager.markPortalStorageChanged(portalId);
         Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " connected to PortalStructure " + portalId.toString().substring(0, 8) + " at " + cablePos, true);
         if (!connectedPortalStructuresMap.containsKey(portalId)) {
             connectedPortalStructuresMap.put(portalId, new HashSet<>());
@@ -362,6 +447,7 @@ public class PowerCableMultiblock {
 
     // NEW METHOD: Remove portal connection from portal side
     public void removePortalConnectionFromPortal(UUID portalId, BlockPos cablePos) {
+        PortalMultiblockManager.markPortalStorageChanged(portalId);
         Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " disconnected from PortalStructure " + portalId.toString().substring(0, 8) + " at " + cablePos, true);
         if (connectedPortalStructuresMap.containsKey(portalId)) {
             Set<BlockPos> connectionPoints = connectedPortalStructuresMap.get(portalId);
@@ -373,10 +459,16 @@ public class PowerCableMultiblock {
     }
 
     public void mergeWith(PowerCableMultiblock other) {
+        // Portals on either side now reach the other side's storage
+        PortalMultiblockManager.markStorageChanged(id);
+        PortalMultiblockManager.markStorageChanged(other.id);
         Logger.sendMessage("PowerCableMultiblock " + id.toString().substring(0, 8) + " merging with " + other.id.toString().substring(0, 8), true);
 
         // Add all cable positions
-        this.cableBlockPositions.addAll(other.cableBlockPositions);
+        for (BlockPos pos : other.cableBlockPositions) {
+            this.cableBlockPositions.add(pos);
+            PortalMultiblockManager.indexPowerCableBlock(level, pos, this);
+        }
 
         // CRITICAL: Merge battery connection maps
         for (Map.Entry<UUID, Set<BlockPos>> entry : other.connectedBatteryMultiblocksMap.entrySet()) {
@@ -435,6 +527,10 @@ public class PowerCableMultiblock {
         return connectedBatteryMultiblocksMap.containsKey(batteryId) && !connectedBatteryMultiblocksMap.get(batteryId).isEmpty();
     }
 
+    public NetworkHandle<PowerCableMultiblock> getHandle() {
+        return handle;
+    }
+
     public Set<BlockPos> getCableBlockPositions() {
         return Collections.unmodifiableSet(cableBlockPositions);
     }